@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2016 Jared Rummler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.jaredrummler.materialspinner.example;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+import android.view.FrameMetrics;
+import android.view.Window;
+import java.util.Arrays;
+
+/**
+ * Records frame intervals from {@link Choreographer} and, on Android N and above, frame durations from
+ * {@link FrameMetrics}.
+ */
+@TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+final class FrameRecorder implements Choreographer.FrameCallback {
+
+  private final Window window;
+  private final LongArray intervals = new LongArray();
+  private final LongArray durations = new LongArray();
+  private Object frameMetricsListener;
+  private long lastFrameTimeNanos;
+  private boolean recording;
+
+  FrameRecorder(Window window) {
+    this.window = window;
+  }
+
+  void start() {
+    intervals.clear();
+    durations.clear();
+    lastFrameTimeNanos = 0;
+    recording = true;
+    Choreographer.getInstance().postFrameCallback(this);
+    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+      frameMetricsListener = FrameMetricsListener.register(window, durations);
+    }
+  }
+
+  void stop() {
+    recording = false;
+    Choreographer.getInstance().removeFrameCallback(this);
+    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N && frameMetricsListener != null) {
+      FrameMetricsListener.unregister(window, frameMetricsListener);
+      frameMetricsListener = null;
+    }
+  }
+
+  @Override public void doFrame(long frameTimeNanos) {
+    if (!recording) {
+      return;
+    }
+    if (lastFrameTimeNanos != 0) {
+      intervals.add(frameTimeNanos - lastFrameTimeNanos);
+    }
+    lastFrameTimeNanos = frameTimeNanos;
+    Choreographer.getInstance().postFrameCallback(this);
+  }
+
+  /**
+   * @return the time between consecutive frames in nanoseconds
+   */
+  long[] getFrameIntervals() {
+    return intervals.toArray();
+  }
+
+  /**
+   * @return the total duration of each frame in nanoseconds, or an empty array before Android N
+   */
+  long[] getFrameDurations() {
+    return durations.toArray();
+  }
+
+  @TargetApi(Build.VERSION_CODES.N)
+  private static final class FrameMetricsListener implements Window.OnFrameMetricsAvailableListener {
+
+    private final LongArray durations;
+
+    private FrameMetricsListener(LongArray durations) {
+      this.durations = durations;
+    }
+
+    static Object register(Window window, LongArray durations) {
+      FrameMetricsListener listener = new FrameMetricsListener(durations);
+      window.addOnFrameMetricsAvailableListener(listener, new Handler(Looper.getMainLooper()));
+      return listener;
+    }
+
+    static void unregister(Window window, Object listener) {
+      try {
+        window.removeOnFrameMetricsAvailableListener((FrameMetricsListener) listener);
+      } catch (IllegalArgumentException ignored) {
+        // not registered
+      }
+    }
+
+    @Override public void onFrameMetricsAvailable(Window window, FrameMetrics frameMetrics, int dropCount) {
+      durations.add(frameMetrics.getMetric(FrameMetrics.TOTAL_DURATION));
+    }
+  }
+
+  private static final class LongArray {
+
+    private long[] values = new long[256];
+    private int size;
+
+    void add(long value) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, size * 2);
+      }
+      values[size++] = value;
+    }
+
+    void clear() {
+      size = 0;
+    }
+
+    long[] toArray() {
+      return Arrays.copyOf(values, size);
+    }
+  }
+}
@@ -20,7 +20,11 @@ package com.jaredrummler.materialspinner.example;
 import android.content.ActivityNotFoundException;
 import android.content.Intent;
 import android.net.Uri;
+import android.os.Build;
 import android.os.Bundle;
+import android.util.Log;
+import android.view.Menu;
+import android.view.MenuItem;
 import android.view.View;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
@@ -30,6 +34,8 @@ import com.jaredrummler.materialspinner.MaterialSpinner;
 
 public class MainActivity extends AppCompatActivity {
 
+  private static final String TAG = "MaterialSpinnerDemo";
+
   private static final String[] ANDROID_VERSIONS = {
       "Cupcake",
       "Donut",
@@ -46,6 +52,8 @@ public class MainActivity extends AppCompatActivity {
       "Oreo"
   };
 
+  private MaterialSpinner spinner;
+
   @Override protected void onCreate(Bundle savedInstanceState) {
     super.onCreate(savedInstanceState);
     setContentView(R.layout.activity_main);
@@ -63,7 +71,7 @@ public class MainActivity extends AppCompatActivity {
       }
     });
 
-    MaterialSpinner spinner = (MaterialSpinner) findViewById(R.id.spinner);
+    spinner = (MaterialSpinner) findViewById(R.id.spinner);
     spinner.setItems(ANDROID_VERSIONS);
     spinner.setOnItemSelectedListener(new MaterialSpinner.OnItemSelectedListener<String>() {
 
@@ -79,4 +87,36 @@ public class MainActivity extends AppCompatActivity {
     });
   }
 
+  @Override public boolean onCreateOptionsMenu(Menu menu) {
+    getMenuInflater().inflate(R.menu.menu_main, menu);
+    menu.findItem(R.id.action_stress_test).setVisible(Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN);
+    return true;
+  }
+
+  @Override public boolean onOptionsItemSelected(MenuItem item) {
+    if (item.getItemId() == R.id.action_stress_test) {
+      startActivity(new Intent(this, StressActivity.class));
+      return true;
+    } else if (item.getItemId() == R.id.action_check_overdraw) {
+      checkOverdraw();
+      return true;
+    }
+    return super.onOptionsItemSelected(item);
+  }
+
+  private void checkOverdraw() {
+    spinner.expand();
+    // Wait for the popup to be laid out (and for the flat dropdown to finish fading in)
+    spinner.postDelayed(new Runnable() {
+
+      @Override public void run() {
+        int layers = OverdrawInspector.countLayers(spinner.getListView());
+        String message = getString(R.string.overdraw_result, layers, spinner.isFlatDropdown());
+        Log.i(TAG, message);
+        spinner.collapse();
+        Snackbar.make(spinner, message, Snackbar.LENGTH_LONG).show();
+      }
+    }, 300);
+  }
+
 }
@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2016 Jared Rummler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.jaredrummler.materialspinner.example;
+
+import android.graphics.Color;
+import android.graphics.PixelFormat;
+import android.graphics.drawable.ColorDrawable;
+import android.graphics.drawable.Drawable;
+import android.view.View;
+import android.view.ViewParent;
+import android.widget.ListView;
+
+/**
+ * Counts how many opaque layers are drawn under a row of a spinner's dropdown, from the popup's root view down to
+ * the row itself. This is the number of times the pixels of a row are painted before the text, as shown by the
+ * "Debug GPU overdraw" developer option.
+ */
+final class OverdrawInspector {
+
+  private OverdrawInspector() {
+  }
+
+  /**
+   * @param listView the dropdown list view, must be attached and laid out
+   * @return the number of background layers under the first visible row, or -1 if the list has no rows
+   */
+  static int countLayers(ListView listView) {
+    if (listView.getChildCount() == 0) {
+      return -1;
+    }
+    View row = listView.getChildAt(0);
+    int layers = 0;
+    for (View view = row; view != null; ) {
+      if (isVisible(view.getBackground())) {
+        layers++;
+      }
+      ViewParent parent = view.getParent();
+      view = parent instanceof View ? (View) parent : null;
+    }
+    if (!listView.isDrawSelectorOnTop() && isVisible(listView.getSelector())) {
+      layers++;
+    }
+    return layers;
+  }
+
+  private static boolean isVisible(Drawable drawable) {
+    if (drawable == null) {
+      return false;
+    }
+    Drawable current = drawable.getCurrent();
+    if (current == null) {
+      return false;
+    }
+    if (current instanceof ColorDrawable) {
+      return Color.alpha(((ColorDrawable) current).getColor()) != 0;
+    }
+    return current.isVisible() && current.getOpacity() != PixelFormat.TRANSPARENT;
+  }
+
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright (C) 2016 Jared Rummler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.jaredrummler.materialspinner.example;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Bundle;
+import android.text.TextUtils;
+import android.util.Log;
+import android.view.ViewGroup;
+import android.widget.LinearLayout;
+import android.widget.ScrollView;
+import android.widget.TextView;
+import androidx.appcompat.app.AppCompatActivity;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Runs stress scenarios against the spinner and exports frame timings, first-open latency and heap growth as JSON.
+ *
+ * <p>Launch from the demo's menu, or headlessly (from adb, or under Robolectric as in {@code StressActivityTest}) with
+ * optional extras:</p>
+ *
+ * <pre>
+ * adb shell am start -n com.jaredrummler.materialspinner.example/.StressActivity \
+ *     -e scenarios large_list,rapid_toggle -e output results.json
+ * </pre>
+ *
+ * <p>Results are written to {@code stress-results.json}, or the file named by {@link #EXTRA_OUTPUT}, in the app's
+ * external files directory, and are also logged under the {@value #TAG} tag.</p>
+ */
+@TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+public class StressActivity extends AppCompatActivity {
+
+  /** Comma-separated scenario names to run. All scenarios run if missing. */
+  public static final String EXTRA_SCENARIOS = "scenarios";
+  /** Name of the JSON results file. The file is always written to the app's own files directory. */
+  public static final String EXTRA_OUTPUT = "output";
+
+  private static final String TAG = "MaterialSpinnerStress";
+
+  private final List<StressScenario> scenarios = new ArrayList<>();
+  private final JSONArray results = new JSONArray();
+  private FrameRecorder frameRecorder;
+  private LinearLayout container;
+  private TextView status;
+  private int current;
+  private boolean finished;
+
+  @Override protected void onCreate(Bundle savedInstanceState) {
+    super.onCreate(savedInstanceState);
+    LinearLayout root = new LinearLayout(this);
+    root.setOrientation(LinearLayout.VERTICAL);
+    status = new TextView(this);
+    int padding = getResources().getDimensionPixelSize(R.dimen.activity_horizontal_margin);
+    status.setPadding(padding, padding, padding, padding);
+    root.addView(status);
+    ScrollView scrollView = new ScrollView(this);
+    container = new LinearLayout(this);
+    container.setOrientation(LinearLayout.VERTICAL);
+    scrollView.addView(container);
+    root.addView(scrollView, new LinearLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, 0, 1));
+    setContentView(root);
+
+    String names = getIntent().getStringExtra(EXTRA_SCENARIOS);
+    List<String> requested = TextUtils.isEmpty(names) ? null : Arrays.asList(names.split(","));
+    for (StressScenario scenario : StressScenario.all()) {
+      if (requested == null || requested.contains(scenario.name)) {
+        scenarios.add(scenario);
+      }
+    }
+    frameRecorder = new FrameRecorder(getWindow());
+    container.post(new Runnable() {
+
+      @Override public void run() {
+        runNext();
+      }
+    });
+  }
+
+  @Override protected void onDestroy() {
+    frameRecorder.stop();
+    finished = true;
+    super.onDestroy();
+  }
+
+  private void runNext() {
+    if (finished) {
+      return;
+    }
+    if (current == scenarios.size()) {
+      writeResults();
+      return;
+    }
+    final StressScenario scenario = scenarios.get(current++);
+    status.setText(getString(R.string.stress_running, scenario.name, current, scenarios.size()));
+    container.removeAllViews();
+    final StressResult result = new StressResult(scenario.name);
+    final long heapBefore = usedHeap();
+    final long start = System.currentTimeMillis();
+    frameRecorder.start();
+    scenario.run(this, container, result, new Runnable() {
+
+      @Override public void run() {
+        frameRecorder.stop();
+        result.durationMillis = System.currentTimeMillis() - start;
+        result.frameIntervals = frameRecorder.getFrameIntervals();
+        result.frameDurations = frameRecorder.getFrameDurations();
+        result.heapGrowthBytes = usedHeap() - heapBefore;
+        try {
+          results.put(result.toJson());
+        } catch (JSONException e) {
+          Log.e(TAG, "Error recording " + scenario.name, e);
+        }
+        container.post(new Runnable() {
+
+          @Override public void run() {
+            runNext();
+          }
+        });
+      }
+    });
+  }
+
+  /**
+   * @return the file the results are written to once every scenario has run
+   */
+  File getResultsFile() {
+    String output = getIntent().getStringExtra(EXTRA_OUTPUT);
+    // Only the name is used, so callers can't write outside the app's directory
+    String name = TextUtils.isEmpty(output) ? "" : new File(output).getName();
+    File directory = getExternalFilesDir(null);
+    return new File(directory != null ? directory : getFilesDir(),
+        name.isEmpty() || name.startsWith(".") ? "stress-results.json" : name);
+  }
+
+  private void writeResults() {
+    File file = getResultsFile();
+    try {
+      JSONObject json = new JSONObject();
+      json.put("device", Build.MANUFACTURER + " " + Build.MODEL);
+      json.put("sdk_int", Build.VERSION.SDK_INT);
+      json.put("timestamp", System.currentTimeMillis());
+      json.put("results", results);
+      String text = json.toString(2);
+      Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+      try {
+        writer.write(text);
+      } finally {
+        writer.close();
+      }
+      Log.i(TAG, text);
+      status.setText(getString(R.string.stress_finished, file.getAbsolutePath()));
+    } catch (IOException | JSONException e) {
+      Log.e(TAG, "Error writing results", e);
+      status.setText(e.toString());
+    }
+  }
+
+  private static long usedHeap() {
+    Runtime runtime = Runtime.getRuntime();
+    runtime.gc();
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
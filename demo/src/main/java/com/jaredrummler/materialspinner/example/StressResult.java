@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2016 Jared Rummler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.jaredrummler.materialspinner.example;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * The measurements from one stress scenario run.
+ */
+final class StressResult {
+
+  private static final long FRAME_BUDGET_NANOS = 16666667L;
+
+  final String scenario;
+  private final Map<String, Double> metrics = new LinkedHashMap<>();
+  long durationMillis;
+  long heapGrowthBytes;
+  long[] frameIntervals = new long[0];
+  long[] frameDurations = new long[0];
+
+  StressResult(String scenario) {
+    this.scenario = scenario;
+  }
+
+  /**
+   * Record a scenario-specific measurement, e.g. the first-open latency.
+   *
+   * @param name the metric name
+   * @param value the value
+   */
+  void putMetric(String name, double value) {
+    metrics.put(name, value);
+  }
+
+  JSONObject toJson() throws JSONException {
+    JSONObject json = new JSONObject();
+    json.put("scenario", scenario);
+    json.put("duration_ms", durationMillis);
+    json.put("heap_growth_bytes", heapGrowthBytes);
+    json.put("frame_intervals", frameStats(frameIntervals));
+    json.put("frame_durations", frameStats(frameDurations));
+    JSONObject extras = new JSONObject();
+    for (Map.Entry<String, Double> metric : metrics.entrySet()) {
+      extras.put(metric.getKey(), metric.getValue());
+    }
+    json.put("metrics", extras);
+    return json;
+  }
+
+  private static JSONObject frameStats(long[] nanos) throws JSONException {
+    JSONObject json = new JSONObject();
+    json.put("count", nanos.length);
+    if (nanos.length == 0) {
+      return json;
+    }
+    long[] sorted = nanos.clone();
+    Arrays.sort(sorted);
+    int janky = 0;
+    for (long value : sorted) {
+      if (value > FRAME_BUDGET_NANOS) janky++;
+    }
+    json.put("janky", janky);
+    json.put("p50_ms", percentile(sorted, 0.50));
+    json.put("p90_ms", percentile(sorted, 0.90));
+    json.put("p99_ms", percentile(sorted, 0.99));
+    json.put("max_ms", sorted[sorted.length - 1] / 1e6);
+    return json;
+  }
+
+  private static double percentile(long[] sorted, double percentile) {
+    int index = (int) Math.ceil(percentile * sorted.length) - 1;
+    return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+  }
+}
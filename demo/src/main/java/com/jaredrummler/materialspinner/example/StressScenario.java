@@ -0,0 +1,239 @@
+/*
+ * Copyright (C) 2016 Jared Rummler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.jaredrummler.materialspinner.example;
+
+import android.annotation.TargetApi;
+import android.app.Activity;
+import android.os.Build;
+import android.os.SystemClock;
+import android.view.ViewGroup;
+import android.view.ViewTreeObserver;
+import android.widget.LinearLayout;
+import android.widget.ListView;
+import com.jaredrummler.materialspinner.MaterialSpinner;
+import com.jaredrummler.materialspinner.MaterialSpinnerAdapter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A stress scenario run by {@link StressActivity}. Each scenario adds its views to an empty container, drives the
+ * spinners on the main thread and calls {@code onComplete} when finished. Frame timings and heap growth are recorded
+ * by the activity around the run.
+ */
+@TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+abstract class StressScenario {
+
+  final String name;
+
+  StressScenario(String name) {
+    this.name = name;
+  }
+
+  abstract void run(Activity activity, ViewGroup container, StressResult result, Runnable onComplete);
+
+  static List<StressScenario> all() {
+    List<StressScenario> scenarios = new ArrayList<>();
+    scenarios.add(new LargeList());
+    scenarios.add(new ManySpinners());
+    scenarios.add(new RapidToggle());
+    scenarios.add(new LiveUpdates());
+    return scenarios;
+  }
+
+  static List<String> createItems(int count) {
+    List<String> items = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      items.add("Item " + i);
+    }
+    return items;
+  }
+
+  static MaterialSpinner addSpinner(Activity activity, ViewGroup container) {
+    MaterialSpinner spinner = new MaterialSpinner(activity);
+    spinner.setDropdownMaxHeight(activity.getResources().getDisplayMetrics().heightPixels / 2);
+    container.addView(spinner,
+        new LinearLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT));
+    return spinner;
+  }
+
+  /**
+   * Expand the spinner and record the time until the dropdown list is first drawn as {@code first_open_ms}.
+   */
+  static void expandAndMeasure(MaterialSpinner spinner, final StressResult result, final Runnable onShown) {
+    final ListView listView = spinner.getListView();
+    final long start = SystemClock.uptimeMillis();
+    listView.getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+
+      @Override public boolean onPreDraw() {
+        listView.getViewTreeObserver().removeOnPreDrawListener(this);
+        result.putMetric("first_open_ms", SystemClock.uptimeMillis() - start);
+        listView.post(onShown);
+        return true;
+      }
+    });
+    spinner.expand();
+  }
+
+  /**
+   * Opens a dropdown with 100,000 items and flings through it.
+   */
+  static final class LargeList extends StressScenario {
+
+    LargeList() {
+      super("large_list");
+    }
+
+    @Override void run(Activity activity, ViewGroup container, StressResult result, final Runnable onComplete) {
+      final MaterialSpinner spinner = addSpinner(activity, container);
+      long start = SystemClock.uptimeMillis();
+      spinner.setItems(createItems(100000));
+      result.putMetric("set_items_ms", SystemClock.uptimeMillis() - start);
+      spinner.post(new Runnable() {
+
+        @Override public void run() {
+          expandAndMeasure(spinner, result, new Runnable() {
+
+            @Override public void run() {
+              spinner.getListView().smoothScrollBy(spinner.getListView().getHeight() * 200, 3000);
+              spinner.postDelayed(new Runnable() {
+
+                @Override public void run() {
+                  spinner.collapse();
+                  onComplete.run();
+                }
+              }, 3500);
+            }
+          });
+        }
+      });
+    }
+  }
+
+  /**
+   * Lays out 100 spinners on one screen and scrolls through them.
+   */
+  static final class ManySpinners extends StressScenario {
+
+    ManySpinners() {
+      super("many_spinners");
+    }
+
+    @Override void run(Activity activity, final ViewGroup container, final StressResult result,
+        final Runnable onComplete) {
+      List<String> items = createItems(50);
+      final long start = SystemClock.uptimeMillis();
+      for (int i = 0; i < 100; i++) {
+        addSpinner(activity, container).setItems(items);
+      }
+      container.getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+
+        @Override public boolean onPreDraw() {
+          container.getViewTreeObserver().removeOnPreDrawListener(this);
+          result.putMetric("first_layout_ms", SystemClock.uptimeMillis() - start);
+          return true;
+        }
+      });
+      final ViewGroup scrollView = (ViewGroup) container.getParent();
+      container.postDelayed(new Runnable() {
+
+        int step;
+
+        @Override public void run() {
+          if (step++ < 120) {
+            scrollView.scrollBy(0, step <= 60 ? 40 : -40);
+            container.postOnAnimation(this);
+          } else {
+            onComplete.run();
+          }
+        }
+      }, 500);
+    }
+  }
+
+  /**
+   * Expands and collapses a spinner on every frame.
+   */
+  static final class RapidToggle extends StressScenario {
+
+    RapidToggle() {
+      super("rapid_toggle");
+    }
+
+    @Override void run(Activity activity, ViewGroup container, StressResult result, final Runnable onComplete) {
+      final MaterialSpinner spinner = addSpinner(activity, container);
+      spinner.setItems(createItems(1000));
+      spinner.post(new Runnable() {
+
+        int toggles;
+
+        @Override public void run() {
+          if (toggles++ < 100) {
+            if (spinner.getPopupWindow().isShowing()) {
+              spinner.collapse();
+            } else {
+              spinner.expand();
+            }
+            spinner.postOnAnimation(this);
+          } else {
+            spinner.collapse();
+            onComplete.run();
+          }
+        }
+      });
+    }
+  }
+
+  /**
+   * Changes the items every 100ms while the dropdown is open.
+   */
+  static final class LiveUpdates extends StressScenario {
+
+    LiveUpdates() {
+      super("live_updates");
+    }
+
+    @Override void run(Activity activity, ViewGroup container, final StressResult result,
+        final Runnable onComplete) {
+      final MaterialSpinner spinner = addSpinner(activity, container);
+      final List<String> items = createItems(1000);
+      final MaterialSpinnerAdapter<String> adapter = new MaterialSpinnerAdapter<>(activity, items);
+      spinner.setAdapter(adapter);
+      spinner.post(new Runnable() {
+
+        @Override public void run() {
+          expandAndMeasure(spinner, result, new Runnable() {
+
+            int updates;
+
+            @Override public void run() {
+              if (updates++ < 30) {
+                for (int i = 0; i < items.size(); i += 7) {
+                  items.set(i, "Item " + i + " (" + updates + ")");
+                }
+                adapter.notifyDataSetChanged();
+                spinner.postDelayed(this, 100);
+              } else {
+                spinner.collapse();
+                onComplete.run();
+              }
+            }
+          });
+        }
+      });
+    }
+  }
+}
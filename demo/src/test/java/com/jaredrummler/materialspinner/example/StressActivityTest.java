@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2016 Jared Rummler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.jaredrummler.materialspinner.example;
+
+import android.content.Intent;
+import android.os.Build;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.concurrent.TimeUnit;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs each stress scenario headlessly. The main looper is paused and advanced one frame at a time, so posted and
+ * delayed work runs in order as it would on a device.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = Build.VERSION_CODES.O_MR1) // API 28 needs a Java 9 runtime under Robolectric 4.0
+public class StressActivityTest {
+
+  private static final long FRAME_MILLIS = 16;
+  /** Longer than the slowest scenario, which scrolls for 3.5 seconds */
+  private static final long TIMEOUT_MILLIS = 30000;
+
+  @Test public void largeList() throws Exception {
+    runScenario(new StressScenario.LargeList());
+  }
+
+  @Test public void manySpinners() throws Exception {
+    runScenario(new StressScenario.ManySpinners());
+  }
+
+  @Test public void rapidToggle() throws Exception {
+    runScenario(new StressScenario.RapidToggle());
+  }
+
+  @Test public void liveUpdates() throws Exception {
+    runScenario(new StressScenario.LiveUpdates());
+  }
+
+  @Test public void outputStaysInAppDirectory() {
+    Intent intent = new Intent(RuntimeEnvironment.application, StressActivity.class)
+        .putExtra(StressActivity.EXTRA_SCENARIOS, "none")
+        .putExtra(StressActivity.EXTRA_OUTPUT, "../../shared_prefs/results.xml");
+    StressActivity activity = Robolectric.buildActivity(StressActivity.class, intent).create().get();
+    File file = activity.getResultsFile();
+    assertEquals("results.xml", file.getName());
+    assertEquals(activity.getExternalFilesDir(null), file.getParentFile());
+  }
+
+  private void runScenario(StressScenario scenario) throws Exception {
+    ShadowLooper.pauseMainLooper();
+    Intent intent = new Intent(RuntimeEnvironment.application, StressActivity.class)
+        .putExtra(StressActivity.EXTRA_SCENARIOS, scenario.name)
+        .putExtra(StressActivity.EXTRA_OUTPUT, scenario.name + ".json");
+    StressActivity activity = Robolectric.buildActivity(StressActivity.class, intent).setup().get();
+    File file = activity.getResultsFile();
+    //noinspection ResultOfMethodCallIgnored
+    file.delete();
+    for (long elapsed = 0; elapsed < TIMEOUT_MILLIS && !file.exists(); elapsed += FRAME_MILLIS) {
+      ShadowLooper.idleMainLooper(FRAME_MILLIS, TimeUnit.MILLISECONDS);
+    }
+    assertTrue(scenario.name + " did not finish", file.exists());
+
+    JSONArray results = new JSONObject(read(file)).getJSONArray("results");
+    assertEquals(1, results.length());
+    assertEquals(scenario.name, results.getJSONObject(0).getString("scenario"));
+  }
+
+  private static String read(File file) throws Exception {
+    StringBuilder text = new StringBuilder();
+    Reader reader = new InputStreamReader(new FileInputStream(file), "UTF-8");
+    try {
+      char[] buffer = new char[4096];
+      for (int count; (count = reader.read(buffer)) != -1; ) {
+        text.append(buffer, 0, count);
+      }
+    } finally {
+      reader.close();
+    }
+    return text.toString();
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2016 Jared Rummler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.jaredrummler.materialspinner;
+
+import android.app.Instrumentation;
+import android.os.Debug;
+import android.widget.PopupWindow;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+import androidx.test.rule.ActivityTestRule;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Counts the allocations made on the main thread while the dropdown is opened, an item is selected and the dropdown
+ * is closed again, after a warm-up so lazily created objects are excluded.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ExpandCollapseAllocationTest {
+
+  private static final int WARM_UP_CYCLES = 20;
+  private static final int CYCLES = 100;
+
+  @Rule public final ActivityTestRule<TestActivity> activityRule = new ActivityTestRule<>(TestActivity.class);
+
+  private Instrumentation instrumentation;
+  private MaterialSpinner spinner;
+
+  @Before public void setUp() {
+    instrumentation = InstrumentationRegistry.getInstrumentation();
+    instrumentation.runOnMainSync(new Runnable() {
+
+      @Override public void run() {
+        TestActivity activity = activityRule.getActivity();
+        List<String> items = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+          items.add("Item " + i);
+        }
+        spinner = new MaterialSpinner(activity);
+        spinner.setItems(items);
+        activity.setContentView(spinner);
+      }
+    });
+    instrumentation.waitForIdleSync();
+  }
+
+  @Test public void selectingAnItemAllocatesNothingBeyondThePopupWindow() {
+    final PopupWindow popupWindow = spinner.getPopupWindow();
+    // PopupWindow allocates its decor view and layout params on every show. The same popup is shown and dismissed the
+    // same number of times in both runs, so any difference is allocated by the spinner.
+    int baseline = countAllocations(new Runnable() {
+
+      @Override public void run() {
+        popupWindow.showAsDropDown(spinner);
+        popupWindow.dismiss();
+      }
+    });
+    int allocations = countAllocations(new Runnable() {
+
+      @Override public void run() {
+        spinner.expand();
+        // Alternates the selection between the first two items
+        spinner.getListView().performItemClick(null, 0, 0);
+      }
+    });
+    assertEquals("Allocations on top of showing and dismissing the popup", 0, allocations - baseline);
+  }
+
+  @Test public void selectingAnItemInFlatDropdownAllocatesNothing() {
+    instrumentation.runOnMainSync(new Runnable() {
+
+      @Override public void run() {
+        spinner.setFlatDropdown(true);
+        spinner.expand();
+      }
+    });
+    // The click starts the exit fade and expand() fades the popup back in, so the popup is never shown or dismissed
+    // and only the spinner's own selection path is counted
+    int allocations = countAllocations(new Runnable() {
+
+      @Override public void run() {
+        // Alternates the selection between the first two items
+        spinner.getListView().performItemClick(null, 0, 0);
+        spinner.expand();
+      }
+    });
+    assertEquals(0, allocations);
+  }
+
+  @Test public void flatFadeAllocatesNothing() {
+    instrumentation.runOnMainSync(new Runnable() {
+
+      @Override public void run() {
+        spinner.setFlatDropdown(true);
+        spinner.expand();
+      }
+    });
+    // No frame runs while cycling, so the popup stays shown and each expand fades the collapsing popup back in
+    int allocations = countAllocations(new Runnable() {
+
+      @Override public void run() {
+        spinner.collapse();
+        spinner.expand();
+      }
+    });
+    assertEquals(0, allocations);
+  }
+
+  private int countAllocations(final Runnable cycle) {
+    final int[] count = new int[1];
+    instrumentation.runOnMainSync(new Runnable() {
+
+      @SuppressWarnings("deprecation")
+      @Override public void run() {
+        for (int i = 0; i < WARM_UP_CYCLES; i++) {
+          cycle.run();
+        }
+        Debug.resetThreadAllocCount();
+        Debug.startAllocCounting();
+        for (int i = 0; i < CYCLES; i++) {
+          cycle.run();
+        }
+        Debug.stopAllocCounting();
+        count[0] = Debug.getThreadAllocCount();
+      }
+    });
+    return count[0];
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2016 Jared Rummler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.jaredrummler.materialspinner;
+
+import android.app.Instrumentation;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+import androidx.test.rule.ActivityTestRule;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Selects items near the end of an adapter with hidden items. The selected index is a position in the backing data, so
+ * it must be checked against the raw count and not the number of rows in the dropdown.
+ */
+@RunWith(AndroidJUnit4.class)
+public class HiddenItemSelectionTest {
+
+  private static final int ITEM_COUNT = 10;
+
+  @Rule public final ActivityTestRule<TestActivity> activityRule = new ActivityTestRule<>(TestActivity.class);
+
+  private Instrumentation instrumentation;
+  private MaterialSpinner spinner;
+  private MaterialSpinnerAdapter<String> adapter;
+
+  @Before public void setUp() {
+    instrumentation = InstrumentationRegistry.getInstrumentation();
+    instrumentation.runOnMainSync(new Runnable() {
+
+      @Override public void run() {
+        TestActivity activity = activityRule.getActivity();
+        List<String> items = new ArrayList<>();
+        for (int i = 0; i < ITEM_COUNT; i++) {
+          items.add("Item " + i);
+        }
+        spinner = new MaterialSpinner(activity);
+        adapter = new MaterialSpinnerAdapter<>(activity, items);
+        adapter.setItemHidden(2, true);
+        adapter.setItemHidden(3, true);
+        spinner.setAdapter(adapter);
+        activity.setContentView(spinner);
+      }
+    });
+    instrumentation.waitForIdleSync();
+  }
+
+  @Test public void selectsLastItem() {
+    instrumentation.runOnMainSync(new Runnable() {
+
+      @Override public void run() {
+        spinner.setSelectedIndex(ITEM_COUNT - 1);
+        assertEquals(ITEM_COUNT - 1, spinner.getSelectedIndex());
+        assertEquals("Item " + (ITEM_COUNT - 1), spinner.getText().toString());
+      }
+    });
+  }
+
+  @Test public void keepsLastItemSelectedWhenAdapterIsSetAgain() {
+    instrumentation.runOnMainSync(new Runnable() {
+
+      @Override public void run() {
+        spinner.setSelectedIndex(ITEM_COUNT - 1);
+        spinner.setAdapter(adapter);
+        assertEquals(ITEM_COUNT - 1, spinner.getSelectedIndex());
+        assertEquals("Item " + (ITEM_COUNT - 1), spinner.getText().toString());
+      }
+    });
+  }
+
+  @Test(expected = IllegalArgumentException.class) public void rejectsIndexPastLastItem() {
+    spinner.setSelectedIndex(ITEM_COUNT);
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2016 Jared Rummler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.jaredrummler.materialspinner;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A small pool of low-priority threads shared by every spinner for work that must stay off the main thread, such as
+ * decoding icons and diffing item lists.
+ */
+final class BackgroundThread {
+
+  private static final Handler MAIN_HANDLER = new Handler(Looper.getMainLooper());
+
+  private static final ThreadPoolExecutor EXECUTOR;
+
+  static {
+    EXECUTOR = new ThreadPoolExecutor(2, 2, 10, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+        new ThreadFactory() {
+
+          @Override public Thread newThread(final Runnable r) {
+            Thread thread = new Thread(new Runnable() {
+
+              @Override public void run() {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                r.run();
+              }
+            }, "MaterialSpinner-background");
+            thread.setDaemon(true);
+            return thread;
+          }
+        });
+    EXECUTOR.allowCoreThreadTimeOut(true);
+  }
+
+  private BackgroundThread() {
+  }
+
+  /**
+   * Run a task on the background pool. An exception thrown by the task is rethrown on the main thread instead of being
+   * kept in the returned future, which nobody reads.
+   *
+   * @param task the task
+   * @return a future that can be used to cancel the task
+   */
+  static Future<?> submit(final Runnable task) {
+    return EXECUTOR.submit(new Runnable() {
+
+      @Override public void run() {
+        try {
+          task.run();
+        } catch (final RuntimeException | Error e) {
+          postToMain(new Runnable() {
+
+            @Override public void run() {
+              throw new RuntimeException("Error in background task", e);
+            }
+          });
+        }
+      }
+    });
+  }
+
+  /**
+   * Run a task on the main thread.
+   *
+   * @param task the task
+   */
+  static void postToMain(Runnable task) {
+    MAIN_HANDLER.post(task);
+  }
+
+  /**
+   * @return {@code true} if the current thread is the main thread
+   */
+  static boolean isMainThread() {
+    return Looper.myLooper() == Looper.getMainLooper();
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2016 Jared Rummler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.jaredrummler.materialspinner;
+
+import android.content.Context;
+import android.widget.TextView;
+import androidx.annotation.ArrayRes;
+import androidx.annotation.Nullable;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An adapter backed by a {@code CharSequence[]}, such as a string-array resource. Rows are bound with the original
+ * {@link CharSequence} so styled text is kept and no strings are built while binding or measuring.
+ */
+public class CharSequenceArrayAdapter extends MaterialSpinnerBaseAdapter<CharSequence> {
+
+  private final CharSequence[] values;
+  private final long[] ids;
+  private final List<CharSequence> items;
+
+  public CharSequenceArrayAdapter(Context context, CharSequence[] values) {
+    this(context, values, null);
+  }
+
+  /**
+   * Create an adapter with stable row ids.
+   *
+   * @param context the context
+   * @param values the item texts
+   * @param ids the row id for each item, or {@code null} to use the item position
+   */
+  public CharSequenceArrayAdapter(Context context, CharSequence[] values, @Nullable long[] ids) {
+    super(context);
+    if (ids != null && ids.length != values.length) {
+      throw new IllegalArgumentException("Expected " + values.length + " ids but got " + ids.length);
+    }
+    this.values = values;
+    this.ids = ids;
+    this.items = Arrays.asList(values);
+  }
+
+  /**
+   * Create an adapter from a string-array resource.
+   *
+   * @param context the context
+   * @param id the string-array resource id
+   * @return the adapter
+   */
+  public static CharSequenceArrayAdapter fromResource(Context context, @ArrayRes int id) {
+    return new CharSequenceArrayAdapter(context, context.getResources().getTextArray(id));
+  }
+
+  @Override public long getItemId(int position) {
+    if (ids == null) {
+      return super.getItemId(position);
+    }
+    return ids[toRawPosition(position, values.length)];
+  }
+
+  @Override public boolean hasStableIds() {
+    return ids != null;
+  }
+
+  @Override public int getRawCount() {
+    return values.length;
+  }
+
+  @Override public int getCount() {
+    return getVisibleCount(values.length);
+  }
+
+  @Override public CharSequence getItem(int position) {
+    return values[toRawPosition(position, values.length)];
+  }
+
+  @Override public CharSequence get(int position) {
+    return values[position];
+  }
+
+  @Override public List<CharSequence> getItems() {
+    return items;
+  }
+
+  @Override public int getRawItemTextLength(int position) {
+    return values[position].length();
+  }
+
+  @Override protected void bindItemText(TextView textView, char[] buffer, int position) {
+    textView.setText(values[toRawPosition(position, values.length)]);
+  }
+
+  @Override protected void bindItemText(TextRowView row, char[] buffer, int position) {
+    row.setText(values[toRawPosition(position, values.length)]);
+  }
+
+  @Override protected void bindRawItemText(TextView textView, char[] buffer, int position) {
+    textView.setText(values[position]);
+  }
+}
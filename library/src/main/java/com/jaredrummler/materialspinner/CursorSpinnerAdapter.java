@@ -0,0 +1,351 @@
+/*
+ * Copyright (C) 2016 Jared Rummler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.jaredrummler.materialspinner;
+
+import android.content.Context;
+import android.database.CharArrayBuffer;
+import android.database.Cursor;
+import android.provider.BaseColumns;
+import android.util.Log;
+import android.view.View;
+import android.widget.TextView;
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An adapter that shows one text column of a {@link Cursor}. Rows are never turned into objects: binding and measuring
+ * copy the column straight from the cursor's window into a {@link CharArrayBuffer} owned by the row, and the cursor
+ * window moves over the result set as the dropdown scrolls. Use it with
+ * {@link MaterialSpinner#setAdapter(MaterialSpinnerBaseAdapter)} instead of wrapping a {@code CursorAdapter}.
+ *
+ * <p>If the cursor has an {@code _id} column, it is used for stable item ids, and a cursor loaded with
+ * {@link #loadCursor(Callable)} keeps the selected row selected.</p>
+ *
+ * <p>The spinner is as wide as the longest label. A cursor loaded with {@link #loadCursor(Callable)} is measured in the
+ * background; a cursor set on the main thread is measured by its first {@value #MAX_MEASURED_ROWS} rows only.</p>
+ */
+public class CursorSpinnerAdapter extends MaterialSpinnerBaseAdapter<String> {
+
+  private static final String TAG = "MaterialSpinner";
+  private static final int MAX_MEASURED_ROWS = 100;
+  private static final int UNMEASURED = -2;
+
+  private final String labelColumn;
+  private final CharArrayBuffer measureBuffer = new CharArrayBuffer(ROW_BUFFER_SIZE);
+  private final List<String> items = new AbstractList<String>() {
+
+    @Override public String get(int index) {
+      return CursorSpinnerAdapter.this.get(index);
+    }
+
+    @Override public int size() {
+      return count;
+    }
+  };
+  private final AtomicInteger loadGeneration = new AtomicInteger();
+  private Cursor cursor;
+  private int count;
+  private int labelIndex;
+  private int idIndex;
+  /** The position of the longest label, measured when the cursor was loaded, or {@link #UNMEASURED} */
+  private int longestPosition = UNMEASURED;
+
+  /**
+   * @param context the context
+   * @param cursor the cursor, or {@code null} to start empty
+   * @param labelColumn the name of the column shown for each row
+   */
+  public CursorSpinnerAdapter(Context context, @Nullable Cursor cursor, @NonNull String labelColumn) {
+    super(context);
+    this.labelColumn = labelColumn;
+    setCursor(cursor);
+  }
+
+  /**
+   * @return the current cursor, or {@code null}
+   */
+  @Nullable public Cursor getCursor() {
+    return cursor;
+  }
+
+  /**
+   * Replace the cursor on the main thread. The selected index is kept if it is still valid. The old cursor is returned
+   * and not closed.
+   *
+   * @param newCursor the new cursor, or {@code null}
+   * @return the previous cursor, or {@code null}
+   */
+  @MainThread @Nullable public Cursor swapCursor(@Nullable Cursor newCursor) {
+    Cursor oldCursor = cursor;
+    if (newCursor == oldCursor) {
+      return null;
+    }
+    loadGeneration.incrementAndGet(); // drop a pending load
+    int oldCount = count;
+    setCursor(newCursor);
+    dispatchItemsReplaced(oldCount, samePositions(oldCount, count));
+    return oldCursor;
+  }
+
+  /**
+   * Replace the cursor on the main thread and close the old one.
+   *
+   * @param newCursor the new cursor, or {@code null}
+   */
+  @MainThread public void changeCursor(@Nullable Cursor newCursor) {
+    Cursor oldCursor = swapCursor(newCursor);
+    if (oldCursor != null) {
+      oldCursor.close();
+    }
+  }
+
+  /**
+   * Run a query on a background thread and swap in the resulting cursor on the main thread, closing the old one. The
+   * new cursor is scanned once in the background for the longest label and, if the rows have ids, for the id of the
+   * selected row, which stays selected. The cursor is then moved back so its window holds the rows the dropdown reads
+   * first, and the swap itself doesn't touch the database. If another cursor is loaded or swapped in first, the result
+   * of this query is closed and dropped.
+   *
+   * @param query returns the new cursor
+   */
+  @MainThread public void loadCursor(@NonNull final Callable<Cursor> query) {
+    final int generation = loadGeneration.incrementAndGet();
+    final int selected = getSelectedIndex();
+    final boolean hasSelectedId = idIndex != -1 && selected < count;
+    final long selectedId = hasSelectedId ? getRawItemId(selected) : 0;
+    BackgroundThread.submit(new Runnable() {
+
+      @Override public void run() {
+        final Cursor newCursor;
+        try {
+          newCursor = query.call();
+        } catch (Exception e) {
+          Log.e(TAG, "Error loading cursor", e);
+          return;
+        }
+        if (newCursor == null) {
+          return;
+        }
+        if (generation != loadGeneration.get()) {
+          newCursor.close();
+          return;
+        }
+        final int newCount = newCursor.getCount();
+        final int[] found = scan(newCursor, labelColumn, hasSelectedId, selectedId);
+        final int newSelected = found[0];
+        final int newLongest = found[1];
+        newCursor.moveToPosition(Math.max(newSelected, 0)); // refill the window the dropdown reads first
+        BackgroundThread.postToMain(new Runnable() {
+
+          @Override public void run() {
+            if (generation != loadGeneration.get()) {
+              newCursor.close(); // a newer cursor was loaded or swapped in
+              return;
+            }
+            Cursor oldCursor = cursor;
+            int oldCount = count;
+            int[] oldToNew = samePositions(oldCount, newCount);
+            if (newSelected != -1 && selected == getSelectedIndex() && selected < oldCount) {
+              // Move the selected row to where its id is now, and drop the row that was mapped there
+              if (newSelected < oldCount && newSelected != selected) {
+                oldToNew[newSelected] = -1;
+              }
+              oldToNew[selected] = newSelected;
+            }
+            setCursor(newCursor);
+            longestPosition = newLongest;
+            dispatchItemsReplaced(oldCount, oldToNew);
+            if (oldCursor != null && oldCursor != newCursor) {
+              oldCursor.close();
+            }
+          }
+        });
+      }
+    });
+  }
+
+  private void setCursor(Cursor newCursor) {
+    cursor = newCursor;
+    longestPosition = UNMEASURED;
+    if (newCursor == null) {
+      count = 0;
+      labelIndex = -1;
+      idIndex = -1;
+    } else {
+      count = newCursor.getCount();
+      labelIndex = newCursor.getColumnIndexOrThrow(labelColumn);
+      idIndex = newCursor.getColumnIndex(BaseColumns._ID);
+    }
+  }
+
+  @Override public int getRawCount() {
+    return count;
+  }
+
+  @Override public int getCount() {
+    return getVisibleCount(count);
+  }
+
+  @Override public String getItem(int position) {
+    return get(toRawPosition(position, count));
+  }
+
+  /**
+   * Read the label of a row. This builds a string; binding and measuring rows don't.
+   */
+  @Override public String get(int position) {
+    if (!cursor.moveToPosition(position)) {
+      throw new IndexOutOfBoundsException("position=" + position + ", count=" + count);
+    }
+    return cursor.getString(labelIndex);
+  }
+
+  /**
+   * @return a list view of the labels, read from the cursor when accessed
+   */
+  @Override public List<String> getItems() {
+    return items;
+  }
+
+  @Override public String getItemText(int position) {
+    return String.valueOf(getItem(position));
+  }
+
+  @Override public long getItemId(int position) {
+    if (idIndex == -1) {
+      return position;
+    }
+    return getRawItemId(toRawPosition(position, count));
+  }
+
+  private long getRawItemId(int position) {
+    if (!cursor.moveToPosition(position)) {
+      throw new IndexOutOfBoundsException("position=" + position + ", count=" + count);
+    }
+    return cursor.getLong(idIndex);
+  }
+
+  @Override public boolean hasStableIds() {
+    return idIndex != -1;
+  }
+
+  @Override public int getRawItemTextLength(int position) {
+    copyLabel(position, measureBuffer);
+    return measureBuffer.sizeCopied;
+  }
+
+  /**
+   * @return the longest label measured when the cursor was loaded, or else the longest of the first
+   * {@value #MAX_MEASURED_ROWS} labels, so the main thread never reads the whole result set
+   */
+  @Override public int getLongestItemPosition() {
+    if (longestPosition != UNMEASURED) {
+      return longestPosition;
+    }
+    int longest = -1;
+    int longestLength = 0;
+    for (int i = 0, size = Math.min(count, MAX_MEASURED_ROWS); i < size; i++) {
+      int length = getRawItemTextLength(i);
+      if (length > longestLength) {
+        longest = i;
+        longestLength = length;
+      }
+    }
+    return longest;
+  }
+
+  @Override protected void bindItemText(TextView textView, char[] buffer, int position) {
+    bindRawItemText(textView, buffer, toRawPosition(position, count));
+  }
+
+  @Override protected void bindItemText(TextRowView row, char[] buffer, int position) {
+    CharArrayBuffer label = getRowBuffer(row);
+    copyLabel(toRawPosition(position, count), label);
+    row.setText(label.data, 0, label.sizeCopied);
+  }
+
+  @Override protected void bindRawItemText(TextView textView, char[] buffer, int position) {
+    CharArrayBuffer label = getRowBuffer(textView);
+    copyLabel(position, label);
+    textView.setText(label.data, 0, label.sizeCopied);
+  }
+
+  private void copyLabel(int position, CharArrayBuffer buffer) {
+    if (cursor != null && cursor.moveToPosition(position)) {
+      cursor.copyStringToBuffer(labelIndex, buffer);
+    } else {
+      buffer.sizeCopied = 0;
+    }
+  }
+
+  /**
+   * Get the buffer owned by a view. The cursor grows it as needed, and the view keeps drawing from it, so it can't be
+   * shared between views.
+   */
+  private static CharArrayBuffer getRowBuffer(View view) {
+    CharArrayBuffer buffer = (CharArrayBuffer) view.getTag(R.id.ms__label_buffer);
+    if (buffer == null) {
+      buffer = new CharArrayBuffer(ROW_BUFFER_SIZE);
+      view.setTag(R.id.ms__label_buffer, buffer);
+    }
+    return buffer;
+  }
+
+  /**
+   * Walk a cursor once, reading only the id and the length of the label of each row.
+   *
+   * @return the position of the row with the id, or -1 if there is no such row or no id column, and the position of
+   * the longest label, or -1 if every label is empty
+   */
+  private static int[] scan(Cursor cursor, String labelColumn, boolean findId, long id) {
+    int labelIndex = cursor.getColumnIndexOrThrow(labelColumn);
+    int idIndex = findId ? cursor.getColumnIndex(BaseColumns._ID) : -1;
+    CharArrayBuffer buffer = new CharArrayBuffer(ROW_BUFFER_SIZE);
+    int idPosition = -1;
+    int longestPosition = -1;
+    int longestLength = 0;
+    for (boolean valid = cursor.moveToFirst(); valid; valid = cursor.moveToNext()) {
+      if (idPosition == -1 && idIndex != -1 && cursor.getLong(idIndex) == id) {
+        idPosition = cursor.getPosition();
+      }
+      cursor.copyStringToBuffer(labelIndex, buffer);
+      if (buffer.sizeCopied > longestLength) {
+        longestPosition = cursor.getPosition();
+        longestLength = buffer.sizeCopied;
+      }
+    }
+    return new int[] {idPosition, longestPosition};
+  }
+
+  /**
+   * Map each old position to the same position, for cursors whose rows can't be matched by id.
+   */
+  private static int[] samePositions(int oldCount, int newCount) {
+    int[] oldToNew = new int[oldCount];
+    Arrays.fill(oldToNew, -1);
+    for (int i = 0, size = Math.min(oldCount, newCount); i < size; i++) {
+      oldToNew[i] = i;
+    }
+    return oldToNew;
+  }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright (C) 2016 Jared Rummler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.jaredrummler.materialspinner;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.util.Log;
+import android.util.LruCache;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.Future;
+
+/**
+ * Decodes item icons off the main thread and caches them for every spinner in the process.
+ */
+final class IconLoader {
+
+  private static final String TAG = "MaterialSpinner";
+
+  private static final LruCache<String, Bitmap> CACHE =
+      new LruCache<String, Bitmap>((int) Math.min(Runtime.getRuntime().maxMemory() / 32, Integer.MAX_VALUE)) {
+
+        @Override protected int sizeOf(String key, Bitmap value) {
+          return value.getRowBytes() * value.getHeight();
+        }
+      };
+
+  private IconLoader() {
+  }
+
+  /**
+   * Get a decoded icon from the shared cache.
+   *
+   * @param key the icon key
+   * @param size the icon size in pixels
+   * @return the bitmap, or {@code null} if it hasn't been decoded at this size
+   */
+  static Bitmap getCached(String key, int size) {
+    return CACHE.get(cacheKey(key, size));
+  }
+
+  /**
+   * Decode an icon on a background thread. The callback is invoked on the main thread unless the request has been
+   * cancelled.
+   *
+   * @param provider supplies the encoded image
+   * @param key the icon key
+   * @param size the icon size in pixels
+   * @param callback invoked with the decoded bitmap
+   * @return the request, which should be cancelled when the row is rebound
+   */
+  static Request load(ItemIconProvider<?> provider, String key, int size, Callback callback) {
+    Request request = new Request(provider, key, size, callback);
+    request.future = BackgroundThread.submit(request);
+    return request;
+  }
+
+  /**
+   * Release cached icons under memory pressure.
+   *
+   * @param all {@code true} to drop every icon, {@code false} to keep the most recently used half of the cache
+   */
+  static void trimCache(boolean all) {
+    if (all) {
+      CACHE.evictAll();
+    } else {
+      CACHE.trimToSize(CACHE.maxSize() / 2);
+    }
+  }
+
+  /**
+   * @return the number of bytes held by decoded icons
+   */
+  static long getCacheBytes() {
+    return CACHE.size();
+  }
+
+  private static String cacheKey(String key, int size) {
+    return size + ":" + key;
+  }
+
+  private static Bitmap decode(ItemIconProvider<?> provider, String key, int size) throws IOException {
+    BitmapFactory.Options options = new BitmapFactory.Options();
+    options.inJustDecodeBounds = true;
+    InputStream in = provider.openIcon(key);
+    if (in == null) {
+      return null;
+    }
+    try {
+      BitmapFactory.decodeStream(in, null, options);
+    } finally {
+      in.close();
+    }
+    if (options.outWidth <= 0 || options.outHeight <= 0) {
+      return null;
+    }
+    int sampleSize = 1;
+    while (options.outWidth / (sampleSize * 2) >= size && options.outHeight / (sampleSize * 2) >= size) {
+      sampleSize *= 2;
+    }
+    options.inJustDecodeBounds = false;
+    options.inSampleSize = sampleSize;
+    in = provider.openIcon(key);
+    if (in == null) {
+      return null;
+    }
+    Bitmap bitmap;
+    try {
+      bitmap = BitmapFactory.decodeStream(in, null, options);
+    } finally {
+      in.close();
+    }
+    if (bitmap == null || (bitmap.getWidth() <= size && bitmap.getHeight() <= size)) {
+      return bitmap;
+    }
+    float scale = Math.min((float) size / bitmap.getWidth(), (float) size / bitmap.getHeight());
+    int width = Math.max(1, Math.round(bitmap.getWidth() * scale));
+    int height = Math.max(1, Math.round(bitmap.getHeight() * scale));
+    Bitmap scaled = Bitmap.createScaledBitmap(bitmap, width, height, true);
+    if (scaled != bitmap) {
+      bitmap.recycle();
+    }
+    return scaled;
+  }
+
+  interface Callback {
+
+    void onIconLoaded(Bitmap bitmap);
+  }
+
+  static final class Request implements Runnable {
+
+    final String key;
+    private final ItemIconProvider<?> provider;
+    private final int size;
+    private final Callback callback;
+    private volatile boolean cancelled;
+    private Future<?> future;
+
+    private Request(ItemIconProvider<?> provider, String key, int size, Callback callback) {
+      this.provider = provider;
+      this.key = key;
+      this.size = size;
+      this.callback = callback;
+    }
+
+    /**
+     * Stop decoding if it hasn't finished and make sure the callback is never invoked. Must be called on the main
+     * thread.
+     */
+    void cancel() {
+      cancelled = true;
+      if (future != null) {
+        future.cancel(false);
+      }
+    }
+
+    @Override public void run() {
+      if (cancelled) {
+        return;
+      }
+      String cacheKey = cacheKey(key, size);
+      Bitmap bitmap = CACHE.get(cacheKey);
+      if (bitmap == null) {
+        try {
+          bitmap = decode(provider, key, size);
+        } catch (IOException | RuntimeException e) {
+          Log.e(TAG, "Error decoding icon " + key, e);
+        }
+        if (bitmap == null) {
+          return;
+        }
+        CACHE.put(cacheKey, bitmap);
+      }
+      final Bitmap result = bitmap;
+      BackgroundThread.postToMain(new Runnable() {
+
+        @Override public void run() {
+          if (!cancelled) {
+            callback.onIconLoaded(result);
+          }
+        }
+      });
+    }
+  }
+}
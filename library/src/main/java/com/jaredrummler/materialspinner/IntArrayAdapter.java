@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2016 Jared Rummler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.jaredrummler.materialspinner;
+
+import android.content.Context;
+import android.widget.TextView;
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * An adapter backed by an {@code int[]}. Values are never boxed when binding or measuring rows.
+ */
+public class IntArrayAdapter extends MaterialSpinnerBaseAdapter<Integer> {
+
+  private final int[] values;
+  private final List<Integer> items = new AbstractList<Integer>() {
+
+    @Override public Integer get(int index) {
+      return values[index];
+    }
+
+    @Override public int size() {
+      return values.length;
+    }
+  };
+
+  public IntArrayAdapter(Context context, int[] values) {
+    super(context);
+    this.values = values;
+  }
+
+  /**
+   * Get the value at a position without boxing.
+   *
+   * @param position the position in the array
+   * @return the value
+   */
+  public int getInt(int position) {
+    return values[position];
+  }
+
+  @Override public int getRawCount() {
+    return values.length;
+  }
+
+  @Override public int getCount() {
+    return getVisibleCount(values.length);
+  }
+
+  @Override public Integer getItem(int position) {
+    return values[toRawPosition(position, values.length)];
+  }
+
+  @Override public Integer get(int position) {
+    return values[position];
+  }
+
+  @Override public List<Integer> getItems() {
+    return items;
+  }
+
+  @Override public String getItemText(int position) {
+    return String.valueOf(values[toRawPosition(position, values.length)]);
+  }
+
+  @Override public int getRawItemTextLength(int position) {
+    return Utils.decimalLength(values[position]);
+  }
+
+  @Override protected void bindItemText(TextView textView, char[] buffer, int position) {
+    bindRawItemText(textView, buffer, toRawPosition(position, values.length));
+  }
+
+  @Override protected void bindItemText(TextRowView row, char[] buffer, int position) {
+    int offset = Utils.formatDecimal(values[toRawPosition(position, values.length)], buffer);
+    row.setText(buffer, offset, buffer.length - offset);
+  }
+
+  @Override protected void bindRawItemText(TextView textView, char[] buffer, int position) {
+    int offset = Utils.formatDecimal(values[position], buffer);
+    textView.setText(buffer, offset, buffer.length - offset);
+  }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2016 Jared Rummler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.jaredrummler.materialspinner;
+
+import android.content.Context;
+import android.widget.TextView;
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * An adapter for an arithmetic range of {@code int} values, such as years or quantities. Values are computed from
+ * their position, so the adapter has no backing storage and costs the same memory for any range size.
+ */
+public class IntRangeAdapter extends MaterialSpinnerBaseAdapter<Integer> {
+
+  private final int start;
+  private final int step;
+  private final int size;
+  private final List<Integer> items = new AbstractList<Integer>() {
+
+    @Override public Integer get(int index) {
+      return getInt(index);
+    }
+
+    @Override public int size() {
+      return size;
+    }
+  };
+
+  /**
+   * Create an adapter for the values {@code start..end} (inclusive).
+   *
+   * @param context the context
+   * @param start the first value
+   * @param end the last value
+   */
+  public IntRangeAdapter(Context context, int start, int end) {
+    this(context, start, end, 1);
+  }
+
+  /**
+   * Create an adapter for the values {@code start, start + step, ...} up to and including {@code end}.
+   *
+   * @param context the context
+   * @param start the first value
+   * @param end the upper bound of the range
+   * @param step the difference between consecutive values
+   */
+  public IntRangeAdapter(Context context, int start, int end, int step) {
+    super(context);
+    if (step <= 0) {
+      throw new IllegalArgumentException("Step must be positive");
+    }
+    if (end < start) {
+      throw new IllegalArgumentException("End must not be lower than start");
+    }
+    long count = ((long) end - start) / step + 1;
+    if (count > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Range is too large");
+    }
+    this.start = start;
+    this.step = step;
+    this.size = (int) count;
+  }
+
+  /**
+   * Get the value at a position without boxing.
+   *
+   * @param position the position in the range
+   * @return the value
+   */
+  public int getInt(int position) {
+    if (position < 0 || position >= size) {
+      throw new IndexOutOfBoundsException("Invalid position " + position + ", size is " + size);
+    }
+    return start + position * step;
+  }
+
+  @Override public int getRawCount() {
+    return size;
+  }
+
+  @Override public int getCount() {
+    return getVisibleCount(size);
+  }
+
+  @Override public Integer getItem(int position) {
+    return getInt(toRawPosition(position, size));
+  }
+
+  @Override public Integer get(int position) {
+    return getInt(position);
+  }
+
+  @Override public List<Integer> getItems() {
+    return items;
+  }
+
+  @Override public String getItemText(int position) {
+    return String.valueOf(getInt(toRawPosition(position, size)));
+  }
+
+  @Override public int getRawItemTextLength(int position) {
+    return Utils.decimalLength(getInt(position));
+  }
+
+  @Override protected void bindItemText(TextView textView, char[] buffer, int position) {
+    bindRawItemText(textView, buffer, toRawPosition(position, size));
+  }
+
+  @Override protected void bindItemText(TextRowView row, char[] buffer, int position) {
+    int offset = Utils.formatDecimal(getInt(toRawPosition(position, size)), buffer);
+    row.setText(buffer, offset, buffer.length - offset);
+  }
+
+  @Override protected void bindRawItemText(TextView textView, char[] buffer, int position) {
+    int offset = Utils.formatDecimal(getInt(position), buffer);
+    textView.setText(buffer, offset, buffer.length - offset);
+  }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2016 Jared Rummler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.jaredrummler.materialspinner;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Supplies icons for dropdown items. Icons are decoded on a background thread, downsampled to the row's icon size and
+ * kept in a memory-bounded cache that is shared by every spinner in the process.
+ *
+ * @param <T> Adapter item type
+ */
+public interface ItemIconProvider<T> {
+
+  /**
+   * Get the key of the icon for an item. Called on the main thread while binding rows, so it should be cheap. The key
+   * identifies the image in the shared cache, so it must be unique per image across the app (e.g. a URI or
+   * {@code "flag/" + countryCode}).
+   *
+   * @param item The item
+   * @return The icon key, or {@code null} if the item has no icon.
+   */
+  @Nullable String getIconKey(@NonNull T item);
+
+  /**
+   * Open the encoded image for a key returned by {@link #getIconKey(Object)}. Called on a background thread, and may
+   * be called twice for the same key (once to read the image bounds and once to decode it).
+   *
+   * @param key The icon key
+   * @return A stream of the encoded image, or {@code null} if there is no image. The stream is closed by the caller.
+   * @throws IOException if the image could not be opened
+   */
+  @Nullable InputStream openIcon(@NonNull String key) throws IOException;
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright (C) 2016 Jared Rummler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.jaredrummler.materialspinner;
+
+import android.content.Context;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+
+/**
+ * Persists the texts and ids of a spinner's items in app storage so the spinner can be populated on the first frame
+ * after a cold start, before the real data has been loaded.
+ *
+ * <p>Each cache is identified by a caller-supplied key. Change the key when the meaning of the cached items changes
+ * (e.g. include a schema or data version in it) and the old file will no longer be used.</p>
+ *
+ * <pre>
+ * ItemListCache cache = ItemListCache.open(context, "categories-v2");
+ * spinner.setItemsFromCache(cache); // read on a background thread
+ * // later, once the fresh list has been loaded on a background thread:
+ * cache.write(categories);
+ * // and back on the main thread:
+ * spinner.setItems(categories);
+ * </pre>
+ */
+public final class ItemListCache {
+
+  private static final String TAG = "MaterialSpinner";
+  private static final String DIRECTORY = "ms__item_cache";
+  private static final int MAGIC = 0x4D534943; // "MSIC"
+  private static final int FORMAT_VERSION = 1;
+
+  private final Context context;
+  private final String key;
+  private final File file;
+
+  private ItemListCache(Context context, String key, File file) {
+    this.context = context;
+    this.key = key;
+    this.file = file;
+  }
+
+  /**
+   * Get the cache for a key.
+   *
+   * @param context the context
+   * @param key identifies the cached list. Include a version in the key to invalidate older caches.
+   * @return the cache. Nothing is read until {@link #read()} is called.
+   */
+  public static ItemListCache open(@NonNull Context context, @NonNull String key) {
+    File directory = new File(context.getFilesDir(), DIRECTORY);
+    return new ItemListCache(context.getApplicationContext(), key, new File(directory, fileName(key)));
+  }
+
+  private static String fileName(String key) {
+    StringBuilder name = new StringBuilder(key.length() + 9);
+    for (int i = 0; i < key.length() && i < 64; i++) {
+      char c = key.charAt(i);
+      boolean safe = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '-' || c == '_';
+      name.append(safe ? c : '_');
+    }
+    return name.append('-').append(Integer.toHexString(key.hashCode())).toString();
+  }
+
+  /**
+   * @return the key this cache was opened with
+   */
+  public String getKey() {
+    return key;
+  }
+
+  /**
+   * Read the cached items. This reads the whole file, so call it on a background thread, like {@link #write(List)}.
+   * {@link MaterialSpinner#setItemsFromCache(ItemListCache)} does this for you.
+   *
+   * @return an adapter with the cached texts and ids, or {@code null} if nothing was cached for this key or the file
+   * could not be read.
+   */
+  @WorkerThread @Nullable public CharSequenceArrayAdapter read() {
+    if (!file.isFile()) {
+      return null;
+    }
+    FileInputStream in = null;
+    try {
+      in = new FileInputStream(file);
+      FileChannel channel = in.getChannel();
+      long size = channel.size();
+      if (size > Integer.MAX_VALUE) {
+        return corrupt();
+      }
+      ByteBuffer buffer = ByteBuffer.allocate((int) size);
+      while (buffer.hasRemaining()) {
+        if (channel.read(buffer) == -1) {
+          return corrupt();
+        }
+      }
+      buffer.flip();
+      if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+        return null;
+      }
+      int keyLength = buffer.getInt();
+      if (keyLength < 0 || keyLength > buffer.remaining() / 2) {
+        return corrupt();
+      }
+      char[] chars = new char[keyLength];
+      buffer.asCharBuffer().get(chars);
+      buffer.position(buffer.position() + chars.length * 2);
+      if (!key.equals(new String(chars))) {
+        return null;
+      }
+      int count = buffer.getInt();
+      // Every item takes at least an id and a length
+      if (count < 0 || count > buffer.remaining() / 12) {
+        return corrupt();
+      }
+      String[] texts = new String[count];
+      long[] ids = new long[count];
+      for (int i = 0; i < count; i++) {
+        ids[i] = buffer.getLong();
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining() / 2) {
+          return corrupt();
+        }
+        if (length > chars.length) {
+          chars = new char[length];
+        }
+        buffer.asCharBuffer().get(chars, 0, length);
+        buffer.position(buffer.position() + length * 2);
+        texts[i] = new String(chars, 0, length);
+      }
+      return new CharSequenceArrayAdapter(context, texts, ids);
+    } catch (IOException | BufferUnderflowException e) {
+      Log.e(TAG, "Error reading item cache " + key, e);
+      return null;
+    } finally {
+      closeQuietly(in);
+    }
+  }
+
+  private CharSequenceArrayAdapter corrupt() {
+    Log.e(TAG, "Item cache " + key + " is corrupt");
+    return null;
+  }
+
+  /**
+   * Cache a list of items. Each item is stored as its {@link Object#toString()} text, with its position as the id.
+   *
+   * @param items the items
+   * @throws IOException if the file could not be written
+   */
+  @WorkerThread public void write(@NonNull List<?> items) throws IOException {
+    CharSequence[] texts = new CharSequence[items.size()];
+    for (int i = 0; i < texts.length; i++) {
+      texts[i] = items.get(i).toString();
+    }
+    write(texts, null);
+  }
+
+  /**
+   * Cache item texts and ids. The file is replaced atomically, so a concurrent {@link #read()} sees either the old or
+   * the new list.
+   *
+   * @param texts the item texts
+   * @param ids the row id for each item, or {@code null} to use the item position
+   * @throws IOException if the file could not be written
+   */
+  @WorkerThread public void write(@NonNull CharSequence[] texts, @Nullable long[] ids) throws IOException {
+    if (ids != null && ids.length != texts.length) {
+      throw new IllegalArgumentException("Expected " + texts.length + " ids but got " + ids.length);
+    }
+    File directory = file.getParentFile();
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new IOException("Unable to create " + directory);
+    }
+    File temp = new File(directory, file.getName() + ".tmp");
+    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+    try {
+      out.writeInt(MAGIC);
+      out.writeInt(FORMAT_VERSION);
+      out.writeInt(key.length());
+      out.writeChars(key);
+      out.writeInt(texts.length);
+      for (int i = 0; i < texts.length; i++) {
+        String text = texts[i].toString();
+        out.writeLong(ids == null ? i : ids[i]);
+        out.writeInt(text.length());
+        out.writeChars(text);
+      }
+    } finally {
+      out.close();
+    }
+    if (!temp.renameTo(file)) {
+      //noinspection ResultOfMethodCallIgnored
+      temp.delete();
+      throw new IOException("Unable to replace " + file);
+    }
+  }
+
+  /**
+   * Delete the cached items.
+   *
+   * @return {@code true} if a cache file was deleted
+   */
+  public boolean clear() {
+    return file.delete();
+  }
+
+  private static void closeQuietly(FileInputStream in) {
+    if (in != null) {
+      try {
+        in.close();
+      } catch (IOException ignored) {
+      }
+    }
+  }
+}
@@ -18,15 +18,22 @@
 package com.jaredrummler.materialspinner;
 
 import android.animation.ObjectAnimator;
+import android.animation.ValueAnimator;
 import android.app.Activity;
+import android.content.ComponentCallbacks2;
 import android.content.Context;
 import android.content.ContextWrapper;
+import android.content.res.ColorStateList;
+import android.content.res.Configuration;
 import android.content.res.Resources;
 import android.content.res.TypedArray;
+import android.database.DataSetObserver;
 import android.graphics.Color;
 import android.graphics.PorterDuff;
+import android.graphics.Rect;
 import android.graphics.drawable.ColorDrawable;
 import android.graphics.drawable.Drawable;
+import android.graphics.drawable.GradientDrawable;
 import android.graphics.drawable.StateListDrawable;
 import android.os.Build;
 import android.os.Bundle;
@@ -37,7 +44,9 @@ import android.util.Log;
 import android.view.Gravity;
 import android.view.MotionEvent;
 import android.view.View;
+import android.view.ViewConfiguration;
 import android.view.WindowManager;
+import android.view.animation.LinearInterpolator;
 import android.widget.AdapterView;
 import android.widget.ListAdapter;
 import android.widget.ListView;
@@ -46,7 +55,9 @@ import android.widget.TextView;
 import androidx.annotation.ColorInt;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -55,14 +66,35 @@ import java.util.List;
  */
 public class MaterialSpinner extends TextView {
 
+  private static final int DROPDOWN_ENTER_DURATION = 150;
+  private static final int DROPDOWN_EXIT_DURATION = 100;
+
   private OnNothingSelectedListener onNothingSelectedListener;
   private OnItemSelectedListener onItemSelectedListener;
+  private ItemIconProvider iconProvider;
+  /** The icon provider taken from the adapter while it is retained without a spinner */
+  private ItemIconProvider detachedIconProvider;
   private MaterialSpinnerBaseAdapter adapter;
   private PopupWindow popupWindow;
   private ListView listView;
   private Drawable arrowDrawable;
+  private ObjectAnimator arrowUpAnimator;
+  private ObjectAnimator arrowDownAnimator;
+  private WeakReference<Activity> hostActivity;
+  private final char[] labelBuffer = new char[MaterialSpinnerBaseAdapter.ROW_BUFFER_SIZE];
   private boolean hideArrow;
   private boolean nothingSelected;
+  private boolean coalesceSelectionEvents;
+  private boolean selectionDispatchScheduled;
+  private boolean pendingSelectionText;
+  private boolean pendingItemSelected;
+  private long pendingItemSelectedId;
+  private int longestItemLength = -1;
+  private int longestItemIndex = -1;
+  private String longestItemText;
+  private boolean popupReleased;
+  private MaterialSpinnerBaseAdapter observedAdapter;
+  private RetainedSpinnerState retainedState;
   private int popupWindowMaxHeight;
   private int popupWindowHeight;
   private int selectedIndex;
@@ -76,8 +108,149 @@ public class MaterialSpinner extends TextView {
   private int popupPaddingLeft;
   private int popupPaddingBottom;
   private int popupPaddingRight;
+  private int touchSlop;
+  private float touchDownX;
+  private float touchDownY;
+  private boolean prepareScheduled;
+  private boolean flatDropdown;
+  private boolean lightweightRows;
+  private boolean openAtSelection;
+  private boolean popupGeometryDirty = true;
+  private int popupWidth;
+  private boolean collapsing;
+  private ValueAnimator fadeAnimator;
+  private View fadingView;
+  private float fadeFrom;
+  private float fadeTo;
+  private Drawable defaultListSelector;
+  private int preparedFirstPosition;
+  private int preparedRowTarget;
+  private int preparedRowCount;
+  /** The first row of the open dropdown, read before the adapter shifts its hidden positions, or -1 */
+  private int changingFirstRaw = -1;
   private String hintText;
 
+  private final Runnable selectionDispatcher = new Runnable() {
+
+    @Override public void run() {
+      dispatchPendingSelection();
+    }
+  };
+
+  private final MaterialSpinnerBaseAdapter.ItemsCallback itemsCallback =
+      new MaterialSpinnerBaseAdapter.ItemsCallback() {
+
+        @Override public void onItemsChanging(MaterialSpinnerBaseAdapter<?> source, int oldCount) {
+          if (source == adapter) {
+            changingFirstRaw = getFirstVisibleRawPosition(oldCount);
+          }
+        }
+
+        @Override public void onItemsReplaced(MaterialSpinnerBaseAdapter<?> source, int oldCount, int[] oldToNew) {
+          if (source == adapter) {
+            cancelPrepare(); // the prepared rows may be stale or out of range
+            applyItemsReplaced(oldCount, oldToNew);
+          }
+        }
+
+        @Override public void onItemRangeInserted(MaterialSpinnerBaseAdapter<?> source, int position, int count) {
+          if (source == adapter) {
+            cancelPrepare();
+            applyItemRangeInserted(position, count);
+          }
+        }
+
+        @Override public void onItemRangeRemoved(MaterialSpinnerBaseAdapter<?> source, int position, int count) {
+          if (source == adapter) {
+            cancelPrepare();
+            applyItemRangeRemoved(position, count);
+          }
+        }
+
+        @Override public void onItemMoved(MaterialSpinnerBaseAdapter<?> source, int fromPosition, int toPosition) {
+          if (source == adapter) {
+            cancelPrepare();
+            applyItemMoved(fromPosition, toPosition);
+          }
+        }
+
+        @Override public void onItemRangeChanged(MaterialSpinnerBaseAdapter<?> source, int position, int count) {
+          if (source == adapter) {
+            cancelPrepare();
+            applyItemRangeChanged(position, count);
+          }
+        }
+      };
+
+  private final ComponentCallbacks2 trimCallbacks = new ComponentCallbacks2() {
+
+    @Override public void onTrimMemory(int level) {
+      trimMemory(level);
+    }
+
+    @Override public void onConfigurationChanged(Configuration newConfig) {
+    }
+
+    @Override public void onLowMemory() {
+      trimMemory(TRIM_MEMORY_COMPLETE);
+    }
+  };
+
+  private final DataSetObserver itemsObserver = new DataSetObserver() {
+
+    @Override public void onChanged() {
+      cancelPrepare();
+      if (adapter == null || !adapter.isNotifyingRowsChanged()) {
+        // Measure the new items; the range updates measure their items themselves
+        invalidateLongestItem();
+      }
+      invalidatePopupGeometry();
+    }
+
+    @Override public void onInvalidated() {
+      cancelPrepare();
+      invalidateLongestItem();
+      invalidatePopupGeometry();
+    }
+  };
+
+  private final Runnable prepareRunnable = new Runnable() {
+
+    @Override public void run() {
+      prepareStep();
+    }
+  };
+
+  private final ValueAnimator.AnimatorUpdateListener fadeListener = new ValueAnimator.AnimatorUpdateListener() {
+
+    @Override public void onAnimationUpdate(ValueAnimator animation) {
+      // No AnimatorListener, since the animator copies its listener list on every start and end
+      float fraction = animation.getAnimatedFraction();
+      fadingView.setAlpha(fadeFrom + (fadeTo - fadeFrom) * fraction);
+      if (fraction >= 1f) {
+        fadingView.setLayerType(LAYER_TYPE_NONE, null);
+        if (fadeTo == 0f) {
+          dismissRunnable.run();
+        }
+      }
+    }
+  };
+
+  private final Runnable dismissRunnable = new Runnable() {
+
+    @Override public void run() {
+      collapsing = false;
+      popupWindow.dismiss();
+    }
+  };
+
+  private final Runnable expandRunnable = new Runnable() {
+
+    @Override public void run() {
+      expand();
+    }
+  };
+
   public MaterialSpinner(Context context) {
     super(context);
     init(context, null);
@@ -138,12 +311,17 @@ public class MaterialSpinner extends TextView {
           ta.getDimensionPixelSize(R.styleable.MaterialSpinner_ms_popup_padding_bottom, defaultPopupPaddingBottom);
       popupPaddingRight =
           ta.getDimensionPixelSize(R.styleable.MaterialSpinner_ms_popup_padding_right, defaultPopupPaddingRight);
+      flatDropdown = ta.getBoolean(R.styleable.MaterialSpinner_ms_flat_dropdown, false);
+      lightweightRows = ta.getBoolean(R.styleable.MaterialSpinner_ms_lightweight_rows, false);
+      openAtSelection = ta.getBoolean(R.styleable.MaterialSpinner_ms_open_at_selection, false);
+      coalesceSelectionEvents = ta.getBoolean(R.styleable.MaterialSpinner_ms_coalesce_selection_events, false);
       arrowColorDisabled = Utils.lighter(arrowColor, 0.8f);
     } finally {
       ta.recycle();
     }
 
     nothingSelected = true;
+    touchSlop = ViewConfiguration.get(context).getScaledTouchSlop();
 
     setGravity(Gravity.CENTER_VERTICAL | Gravity.START);
     setClickable(true);
@@ -158,6 +336,8 @@ public class MaterialSpinner extends TextView {
     if (!hideArrow) {
       arrowDrawable = Utils.getDrawable(context, R.drawable.ms__arrow).mutate();
       arrowDrawable.setColorFilter(arrowColor, PorterDuff.Mode.SRC_IN);
+      arrowUpAnimator = ObjectAnimator.ofInt(arrowDrawable, "level", 0, 10000);
+      arrowDownAnimator = ObjectAnimator.ofInt(arrowDrawable, "level", 10000, 0);
       Drawable[] drawables = getCompoundDrawables();
       if (rtl) {
         drawables[0] = arrowDrawable;
@@ -174,22 +354,23 @@ public class MaterialSpinner extends TextView {
     listView.setOnItemClickListener(new AdapterView.OnItemClickListener() {
 
       @Override public void onItemClick(AdapterView<?> parent, View view, int position, long id) {
-        if (position >= selectedIndex
-            && position < adapter.getCount()
-            && adapter.getItems().size() != 1
-            && TextUtils.isEmpty(hintText)) {
-          position++;
-        }
+        position = adapter.toRawPosition(position, adapter.getRawCount());
         selectedIndex = position;
         nothingSelected = false;
-        Object item = adapter.get(position);
         adapter.notifyItemSelected(position);
+        if (coalesceSelectionEvents) {
+          pendingItemSelected = true;
+          pendingItemSelectedId = id;
+          collapse();
+          scheduleSelectionDispatch();
+          return;
+        }
         setTextColor(textColor);
-        setText(item.toString());
+        setSelectedItemText();
         collapse();
         if (onItemSelectedListener != null) {
           //noinspection unchecked
-          onItemSelectedListener.onItemSelected(MaterialSpinner.this, position, id, item);
+          onItemSelectedListener.onItemSelected(MaterialSpinner.this, position, id, adapter.get(position));
         }
       }
     });
@@ -198,12 +379,14 @@ public class MaterialSpinner extends TextView {
     popupWindow.setContentView(listView);
     popupWindow.setOutsideTouchable(true);
     popupWindow.setFocusable(true);
+    defaultListSelector = listView.getSelector();
 
     if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
       popupWindow.setElevation(16);
-      popupWindow.setBackgroundDrawable(Utils.getDrawable(context, R.drawable.ms__drawable));
-    } else {
-      popupWindow.setBackgroundDrawable(Utils.getDrawable(context, R.drawable.ms__drop_down_shadow));
+    }
+    setPopupBackground();
+    if (flatDropdown) {
+      updateDropdownRendering();
     }
 
     if (backgroundColor != Color.WHITE) { // default color is white
@@ -224,43 +407,245 @@ public class MaterialSpinner extends TextView {
         if (!hideArrow) {
           animateArrow(false);
         }
+        if (flatDropdown) {
+          if (collapsing) {
+            // Dismissed from outside (a touch outside or back) while fading out
+            cancelFade();
+            collapsing = false;
+          }
+          listView.getRootView().setAlpha(1f);
+        }
       }
     });
   }
 
   @Override protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
-    popupWindow.setWidth(MeasureSpec.getSize(widthMeasureSpec));
-    popupWindow.setHeight(calculatePopupWindowHeight());
+    int width = MeasureSpec.getSize(widthMeasureSpec);
+    if (popupWidth != width) {
+      // Applied to the popup when it is shown
+      popupWidth = width;
+      popupGeometryDirty = true;
+    }
     if (adapter != null) {
+      if (longestItemLength < 0) {
+        findLongestItem();
+      }
       CharSequence currentText = getText();
-      String longestItem = currentText.toString();
-      for (int i = 0; i < adapter.getCount(); i++) {
-        String itemText = adapter.getItemText(i);
-        if (itemText.length() > longestItem.length()) {
-          longestItem = itemText;
-        }
+      if (longestItemText == null || longestItemLength <= currentText.length()) {
+        super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+      } else {
+        setText(longestItemText);
+        super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+        setText(currentText);
       }
-      setText(longestItem);
-      super.onMeasure(widthMeasureSpec, heightMeasureSpec);
-      setText(currentText);
     } else {
       super.onMeasure(widthMeasureSpec, heightMeasureSpec);
     }
   }
 
+  /**
+   * Find the item with the longest text, which is used to measure the spinner's width. The result is cached until the
+   * adapter's data changes.
+   */
+  private void findLongestItem() {
+    int longestIndex = adapter.getLongestItemPosition();
+    longestItemLength = longestIndex == -1 ? 0 : adapter.getRawItemTextLength(longestIndex);
+    longestItemIndex = longestIndex;
+    longestItemText = longestIndex == -1 ? null : adapter.get(longestIndex).toString();
+  }
+
+  /**
+   * Update the cached longest item with an item that was added or changed, without scanning the other items.
+   */
+  private void measureLongestItemCandidate(int position) {
+    int length = adapter.getRawItemTextLength(position);
+    if (length > longestItemLength) {
+      longestItemLength = length;
+      longestItemIndex = position;
+      longestItemText = adapter.get(position).toString();
+      requestLayout();
+    }
+  }
+
+  private void invalidateLongestItem() {
+    longestItemLength = -1;
+    requestLayout();
+  }
+
+  @Override protected void onAttachedToWindow() {
+    super.onAttachedToWindow();
+    if (adapter != null && observedAdapter == null) {
+      // Detached with a retained state holder; reconnect the adapter
+      adapter.setContext(getContext());
+      adapter.setIconProvider(detachedIconProvider);
+      detachedIconProvider = null;
+      adapter.setItemsCallback(itemsCallback);
+      adapter.registerDataSetObserver(itemsObserver);
+      observedAdapter = adapter;
+      listView.setAdapter(adapter);
+    }
+    if (hostActivity == null || hostActivity.get() == null) {
+      Activity activity = getActivity();
+      hostActivity = activity == null ? null : new WeakReference<>(activity);
+    }
+    getContext().getApplicationContext().registerComponentCallbacks(trimCallbacks);
+  }
+
+  @Override protected void onDetachedFromWindow() {
+    getContext().getApplicationContext().unregisterComponentCallbacks(trimCallbacks);
+    cancelPrepare();
+    if (collapsing) {
+      dismissPopup();
+    }
+    if (selectionDispatchScheduled) {
+      // Don't lose the final selection if the view goes away before the next frame
+      dispatchPendingSelection();
+    }
+    // A wrapper holds the caller's adapter, which usually references the Activity, so it is never retained
+    if (retainedState != null && adapter != null && getId() != NO_ID
+        && !(adapter instanceof MaterialSpinnerAdapterWrapper)) {
+      retainedState.put(getId(), adapter, longestItemLength, longestItemIndex, longestItemText);
+      // Don't let the retained adapter hold on to this view or its Activity
+      adapter.setItemsCallback(null);
+      adapter.unregisterDataSetObserver(itemsObserver);
+      observedAdapter = null;
+      listView.setAdapter(null);
+      adapter.setContext(getContext().getApplicationContext());
+      // Icon providers are usually inner classes of the Activity
+      detachedIconProvider = adapter.getIconProvider();
+      adapter.setIconProvider(null);
+    }
+    super.onDetachedFromWindow();
+  }
+
   @Override public boolean onTouchEvent(@NonNull MotionEvent event) {
-    if (event.getAction() == MotionEvent.ACTION_UP) {
-      if (isEnabled() && isClickable()) {
-        if (!popupWindow.isShowing()) {
-          expand();
-        } else {
-          collapse();
+    switch (event.getActionMasked()) {
+      case MotionEvent.ACTION_DOWN:
+        touchDownX = event.getX();
+        touchDownY = event.getY();
+        if (isEnabled() && isClickable()) {
+          schedulePrepare();
         }
-      }
+        break;
+      case MotionEvent.ACTION_MOVE:
+        if (prepareScheduled
+            && (Math.abs(event.getX() - touchDownX) > touchSlop || Math.abs(event.getY() - touchDownY) > touchSlop)) {
+          cancelPrepare(); // the touch turned into a scroll
+        }
+        break;
+      case MotionEvent.ACTION_CANCEL:
+        cancelPrepare();
+        break;
+      case MotionEvent.ACTION_UP:
+        if (isEnabled() && isClickable()) {
+          if (!isPopupShowing()) {
+            finishPrepare();
+            expand();
+          } else {
+            collapse();
+          }
+        }
+        break;
     }
     return super.onTouchEvent(event);
   }
 
+  @Override public boolean onHoverEvent(MotionEvent event) {
+    int action = event.getActionMasked();
+    if (action == MotionEvent.ACTION_HOVER_ENTER && isEnabled() && isClickable()) {
+      schedulePrepare();
+    } else if (action == MotionEvent.ACTION_HOVER_EXIT) {
+      // A touch down schedules the preparation again
+      cancelPrepare();
+    }
+    return super.onHoverEvent(event);
+  }
+
+  @Override protected void onFocusChanged(boolean focused, int direction, Rect previouslyFocusedRect) {
+    super.onFocusChanged(focused, direction, previouslyFocusedRect);
+    if (!focused) {
+      cancelPrepare();
+    } else if (isEnabled()) {
+      schedulePrepare();
+    }
+  }
+
+  /**
+   * Start preparing the dropdown in the background of the current gesture: resolve the popup height, then inflate and
+   * bind the rows that will be visible, one per frame. By the time the finger is lifted, {@link #expand()} only has to
+   * show the window.
+   */
+  private void schedulePrepare() {
+    if (prepareScheduled || adapter == null || popupWindow.isShowing()) {
+      return;
+    }
+    prepareScheduled = true;
+    preparedRowTarget = -1;
+    postPrepareStep();
+  }
+
+  private void postPrepareStep() {
+    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+      postOnAnimation(prepareRunnable);
+    } else {
+      post(prepareRunnable);
+    }
+  }
+
+  private void prepareStep() {
+    if (!prepareScheduled || adapter == null || popupWindow.isShowing()) {
+      prepareScheduled = false;
+      return;
+    }
+    if (preparedRowTarget == -1) {
+      restorePopup();
+      resolvePopupGeometry();
+      int itemHeight = getResources().getDimensionPixelSize(R.dimen.ms__item_height);
+      int popupHeight = getExpectedPopupHeight(itemHeight);
+      if (openAtSelection) {
+        // The rows around the selection, where expand() will scroll to
+        preparedFirstPosition = Math.max(0, getSelectionDropdownPosition() - popupHeight / itemHeight / 2);
+      } else {
+        preparedFirstPosition = Math.max(0, listView.getFirstVisiblePosition());
+      }
+      int available = adapter.getCount() - preparedFirstPosition;
+      preparedRowTarget = Math.max(0, Math.min(available, popupHeight / itemHeight + 1) - adapter.getPreparedRowCount());
+      preparedRowCount = 0;
+    } else {
+      int position = preparedFirstPosition + preparedRowCount++;
+      if (position >= adapter.getCount()) {
+        prepareScheduled = false; // the list shrank since preparing started
+        return;
+      }
+      adapter.prepareRow(listView, position);
+    }
+    if (preparedRowCount < preparedRowTarget) {
+      postPrepareStep();
+    } else {
+      prepareScheduled = false;
+    }
+  }
+
+  /**
+   * Stop preparing and keep the rows prepared so far for the dropdown that is about to be shown.
+   */
+  private void finishPrepare() {
+    if (prepareScheduled) {
+      removeCallbacks(prepareRunnable);
+      prepareScheduled = false;
+    }
+  }
+
+  /**
+   * Stop preparing and drop any prepared rows, e.g. when the touch was cancelled.
+   */
+  private void cancelPrepare() {
+    finishPrepare();
+    if (adapter != null && !popupWindow.isShowing()) {
+      adapter.clearPreparedRows();
+    }
+  }
+
   @Override public void setBackgroundColor(int color) {
     backgroundColor = color;
     Drawable background = getBackground();
@@ -279,16 +664,30 @@ public class MaterialSpinner extends TextView {
     } else if (background != null) { // 21+ (RippleDrawable)
       background.setColorFilter(color, PorterDuff.Mode.SRC_IN);
     }
-    popupWindow.getBackground().setColorFilter(color, PorterDuff.Mode.SRC_IN);
+    tintPopupBackground();
+  }
+
+  private void tintPopupBackground() {
+    Drawable popupBackground = popupWindow.getBackground();
+    if (popupBackground instanceof GradientDrawable) { // flat dropdown
+      ((GradientDrawable) popupBackground).setColor(backgroundColor);
+    } else if (popupBackground != null) { // null if released by trimMemory
+      popupBackground.setColorFilter(backgroundColor, PorterDuff.Mode.SRC_IN);
+    }
   }
 
   @Override public void setTextColor(int color) {
+    boolean changed = textColor != color;
     textColor = color;
-    if (adapter != null) {
+    if (adapter != null && changed) {
       adapter.setTextColor(textColor);
       adapter.notifyDataSetChanged();
     }
-    super.setTextColor(color);
+    // TextView wraps the color in a new ColorStateList, and this is called on every selection
+    ColorStateList current = getTextColors();
+    if (current.isStateful() || current.getDefaultColor() != color) {
+      super.setTextColor(color);
+    }
   }
 
   public void setHintColor(int color) {
@@ -302,8 +701,8 @@ public class MaterialSpinner extends TextView {
     bundle.putInt("selected_index", selectedIndex);
     bundle.putBoolean("nothing_selected", nothingSelected);
     if (popupWindow != null) {
-      bundle.putBoolean("is_popup_showing", popupWindow.isShowing());
-      collapse();
+      bundle.putBoolean("is_popup_showing", isPopupShowing());
+      dismissPopup();
     } else {
       bundle.putBoolean("is_popup_showing", false);
     }
@@ -321,19 +720,14 @@ public class MaterialSpinner extends TextView {
           setText(hintText);
         } else {
           setTextColor(textColor);
-          setText(adapter.get(selectedIndex).toString());
+          setSelectedItemText();
         }
         adapter.notifyItemSelected(selectedIndex);
       }
       if (bundle.getBoolean("is_popup_showing")) {
         if (popupWindow != null) {
           // Post the show request into the looper to avoid bad token exception
-          post(new Runnable() {
-
-            @Override public void run() {
-              expand();
-            }
-          });
+          post(expandRunnable);
         }
       }
       savedState = bundle.getParcelable("state");
@@ -362,16 +756,116 @@ public class MaterialSpinner extends TextView {
    */
   public void setSelectedIndex(int position) {
     if (adapter != null) {
-      if (position >= 0 && position <= adapter.getCount()) {
+      if (position >= 0 && position < adapter.getRawCount()) {
         adapter.notifyItemSelected(position);
         selectedIndex = position;
-        setText(adapter.get(position).toString());
+        if (coalesceSelectionEvents) {
+          pendingSelectionText = true;
+          scheduleSelectionDispatch();
+        } else {
+          setSelectedItemText();
+        }
       } else {
         throw new IllegalArgumentException("Position must be lower than adapter count!");
       }
     }
   }
 
+  /**
+   * Coalesce selection changes into a single update on the next animation frame. When enabled, calls to
+   * {@link #setSelectedIndex(int)} and item clicks update the selected index right away, but the spinner's text and the
+   * {@link OnItemSelectedListener} callback are deferred to the next frame and only reflect the final selection.
+   * This avoids repeated relayouts when spinners depend on each other (e.g. country &rarr; region &rarr; city).
+   *
+   * @param coalesce {@code true} to defer and coalesce selection events
+   */
+  public void setCoalesceSelectionEvents(boolean coalesce) {
+    if (!coalesce && selectionDispatchScheduled) {
+      dispatchPendingSelection();
+    }
+    coalesceSelectionEvents = coalesce;
+  }
+
+  /**
+   * @return {@code true} if selection events are coalesced into the next frame
+   * @see #setCoalesceSelectionEvents(boolean)
+   */
+  public boolean isCoalescingSelectionEvents() {
+    return coalesceSelectionEvents;
+  }
+
+  private void scheduleSelectionDispatch() {
+    if (selectionDispatchScheduled) {
+      return;
+    }
+    selectionDispatchScheduled = true;
+    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+      postOnAnimation(selectionDispatcher);
+    } else {
+      post(selectionDispatcher);
+    }
+  }
+
+  private void dispatchPendingSelection() {
+    removeCallbacks(selectionDispatcher);
+    selectionDispatchScheduled = false;
+    boolean itemSelected = pendingItemSelected;
+    boolean updateText = pendingSelectionText || itemSelected;
+    pendingSelectionText = false;
+    pendingItemSelected = false;
+    if (adapter == null || adapter.getCount() <= 0) {
+      return;
+    }
+    if (itemSelected) {
+      setTextColor(textColor);
+    }
+    if (updateText) {
+      setSelectedItemText();
+    }
+    if (itemSelected && onItemSelectedListener != null) {
+      //noinspection unchecked
+      onItemSelectedListener.onItemSelected(this, selectedIndex, pendingItemSelectedId, adapter.get(selectedIndex));
+    }
+  }
+
+  /**
+   * Keep the adapter and computed caches (such as the widest item) in a holder that survives configuration changes, so
+   * a recreated spinner with the same id can attach to them instead of rebuilding everything. The holder should be
+   * kept in a {@code ViewModel} or returned from {@code onRetainCustomNonConfigurationInstance()}:
+   *
+   * <pre>
+   * RetainedSpinnerState state = viewModel.spinnerState;
+   * spinner.setRetainedState(state);
+   * if (spinner.getItems() == null) {
+   *   spinner.setItems(loadItems());
+   * }
+   * </pre>
+   *
+   * <p>The selected index is still saved with {@link #onSaveInstanceState()}. Adapters set with
+   * {@link #setAdapter(ListAdapter)} are not retained, since they hold the caller's adapter, and neither are icon
+   * providers; set them again on the new spinner.</p>
+   *
+   * @param state The holder, or {@code null} to stop retaining
+   */
+  public void setRetainedState(@Nullable RetainedSpinnerState state) {
+    retainedState = state;
+    if (state == null) {
+      return;
+    }
+    if (getId() == NO_ID) {
+      throw new IllegalStateException("MaterialSpinner needs an id to retain its state");
+    }
+    RetainedSpinnerState.Entry entry = state.get(getId());
+    if (entry != null && adapter == null) {
+      entry.adapter.setContext(getContext());
+      //noinspection unchecked
+      setAdapter((MaterialSpinnerBaseAdapter<Object>) entry.adapter);
+      longestItemLength = entry.longestItemLength;
+      longestItemIndex = entry.longestItemIndex;
+      longestItemText = entry.longestItemText;
+    }
+  }
+
   /**
    * Register a callback to be invoked when an item in the dropdown is selected.
    *
@@ -409,11 +903,40 @@ public class MaterialSpinner extends TextView {
   public <T> void setItems(@NonNull List<T> items) {
     adapter = new MaterialSpinnerAdapter<>(getContext(), items)
         .setPopupPadding(popupPaddingLeft, popupPaddingTop, popupPaddingRight, popupPaddingBottom)
-        .setBackgroundSelector(backgroundSelector)
+        .setBackgroundSelector(getRowBackgroundSelector())
         .setTextColor(textColor);
     setAdapterInternal(adapter);
   }
 
+  /**
+   * Populate the dropdown from a persisted {@link ItemListCache} so the spinner isn't empty while the real items are
+   * loading. The cache is read on a background thread, and the cached items are only set if no other items were set
+   * in the meantime. Call {@link #setItems(List)} with the fresh list when it arrives; the selected index is kept if
+   * it is still in range.
+   *
+   * @param cache The item cache
+   */
+  public void setItemsFromCache(@NonNull final ItemListCache cache) {
+    BackgroundThread.submit(new Runnable() {
+
+      @Override public void run() {
+        final CharSequenceArrayAdapter cached = cache.read();
+        if (cached == null) {
+          return;
+        }
+        BackgroundThread.postToMain(new Runnable() {
+
+          @Override public void run() {
+            if (adapter == null) {
+              cached.setContext(getContext()); // read with the application context
+              setAdapter(cached);
+            }
+          }
+        });
+      }
+    });
+  }
+
   /**
    * Set a custom adapter for the dropdown items
    *
@@ -422,7 +945,7 @@ public class MaterialSpinner extends TextView {
   public void setAdapter(@NonNull ListAdapter adapter) {
     this.adapter = new MaterialSpinnerAdapterWrapper(getContext(), adapter)
         .setPopupPadding(popupPaddingLeft, popupPaddingTop, popupPaddingRight, popupPaddingBottom)
-        .setBackgroundSelector(backgroundSelector)
+        .setBackgroundSelector(getRowBackgroundSelector())
         .setTextColor(textColor);
     setAdapterInternal(this.adapter);
   }
@@ -434,36 +957,247 @@ public class MaterialSpinner extends TextView {
    * @param <T> The type
    */
   public <T> void setAdapter(MaterialSpinnerAdapter<T> adapter) {
+    // Widened to pick the base adapter overload
+    setAdapter((MaterialSpinnerBaseAdapter<T>) adapter);
+  }
+
+  /**
+   * Set a custom adapter for the dropdown items, such as an {@link IntRangeAdapter} or {@link CharSequenceArrayAdapter}.
+   *
+   * @param adapter The adapter
+   * @param <T> The type
+   */
+  public <T> void setAdapter(MaterialSpinnerBaseAdapter<T> adapter) {
     this.adapter = adapter;
     this.adapter.setTextColor(textColor);
-    this.adapter.setBackgroundSelector(backgroundSelector);
+    this.adapter.setBackgroundSelector(getRowBackgroundSelector());
     this.adapter.setPopupPadding(popupPaddingLeft, popupPaddingTop, popupPaddingRight, popupPaddingBottom);
     setAdapterInternal(adapter);
   }
 
   private void setAdapterInternal(@NonNull MaterialSpinnerBaseAdapter adapter) {
-    boolean shouldResetPopupHeight = listView.getAdapter() != null;
+    pendingSelectionText = false;
+    cancelPrepare();
+    if (iconProvider != null) {
+      //noinspection unchecked
+      adapter.setIconProvider(iconProvider);
+    }
     adapter.setHintEnabled(!TextUtils.isEmpty(hintText));
+    adapter.setLightweightRows(lightweightRows);
+    adapter.setSelectedItemHighlighted(openAtSelection);
+    adapter.setItemsCallback(itemsCallback);
+    if (observedAdapter != adapter) {
+      if (observedAdapter != null) {
+        observedAdapter.unregisterDataSetObserver(itemsObserver);
+      }
+      adapter.registerDataSetObserver(itemsObserver);
+      observedAdapter = adapter;
+      longestItemLength = -1;
+    }
     listView.setAdapter(adapter);
-    if (selectedIndex >= adapter.getCount()) {
+    if (selectedIndex >= adapter.getRawCount()) {
       selectedIndex = 0;
     }
-    if (adapter.getItems().size() > 0) {
+    adapter.notifyItemSelected(selectedIndex);
+    if (adapter.getRawCount() > 0) {
       if (nothingSelected && !TextUtils.isEmpty(hintText)) {
         setText(hintText);
         setHintColor(hintColor);
       } else {
         setTextColor(textColor);
-        setText(adapter.get(selectedIndex).toString());
+        setSelectedItemText();
       }
     } else {
       setText("");
     }
-    if (shouldResetPopupHeight) {
-      popupWindow.setHeight(calculatePopupWindowHeight());
+    invalidatePopupGeometry();
+  }
+
+  /**
+   * Show an icon next to each item in the dropdown. Icons are decoded off the main thread and shared between spinners
+   * through a memory-bounded cache.
+   *
+   * @param iconProvider supplies the icons, or {@code null} to remove them
+   * @param <T> The item type
+   */
+  public <T> void setIconProvider(@Nullable ItemIconProvider<T> iconProvider) {
+    this.iconProvider = iconProvider;
+    if (adapter != null) {
+      //noinspection unchecked
+      adapter.setIconProvider(iconProvider);
+      adapter.notifyDataSetChanged();
     }
   }
 
+  /**
+   * Replace the dropdown items with a new list. May be called from any thread. If the spinner is using a
+   * {@link MaterialSpinnerAdapter}, the lists are compared on a background thread and only the result is applied on the
+   * main thread: the adapter and popup are kept, the selected item is kept by identity and an open dropdown keeps its
+   * scroll position. Submissions that are superseded before they are applied are dropped.
+   *
+   * @param items A list of items. It is copied before this method returns.
+   * @param <T> The item type
+   */
+  public <T> void submitList(@NonNull List<T> items) {
+    final List<T> snapshot = new ArrayList<>(items);
+    if (BackgroundThread.isMainThread()) {
+      submitSnapshot(snapshot);
+    } else {
+      BackgroundThread.postToMain(new Runnable() {
+
+        @Override public void run() {
+          submitSnapshot(snapshot);
+        }
+      });
+    }
+  }
+
+  private <T> void submitSnapshot(List<T> snapshot) {
+    if (adapter instanceof MaterialSpinnerAdapter) {
+      //noinspection unchecked
+      ((MaterialSpinnerAdapter<T>) adapter).submitSnapshot(snapshot);
+    } else {
+      setItems(snapshot);
+    }
+  }
+
+  private void applyItemsReplaced(int oldCount, int[] oldToNew) {
+    View firstChild = listView.getChildAt(0);
+    int firstTop = firstChild == null ? 0 : firstChild.getTop();
+    int firstRaw = changingFirstRaw;
+
+    int newCount = adapter.getRawCount();
+    int newSelected = selectedIndex < oldToNew.length ? oldToNew[selectedIndex] : -1;
+    if (newSelected == -1) {
+      // The selected item was removed. Keep the index if it is still valid.
+      newSelected = Math.max(0, Math.min(selectedIndex, newCount - 1));
+    }
+    selectedIndex = newSelected;
+    adapter.notifyItemSelected(selectedIndex);
+    if (newCount == 0) {
+      setText("");
+    } else if (!nothingSelected || TextUtils.isEmpty(hintText)) {
+      setSelectedItemText();
+    }
+    // The items observer resizes the popup if it is showing
+    adapter.notifyDataSetChanged();
+
+    if (firstRaw >= 0 && firstRaw < oldToNew.length && oldToNew[firstRaw] != -1) {
+      listView.setSelectionFromTop(adapter.toVisiblePosition(oldToNew[firstRaw], newCount), firstTop);
+    }
+  }
+
+  private void applyItemRangeInserted(int position, int count) {
+    int oldCount = adapter.getRawCount() - count;
+    int firstRaw = changingFirstRaw;
+    if (longestItemLength >= 0) {
+      if (longestItemIndex >= position) {
+        longestItemIndex += count;
+      }
+      for (int i = position, end = position + count; i < end; i++) {
+        measureLongestItemCandidate(i);
+      }
+    }
+    if (oldCount > 0 && selectedIndex >= position) {
+      selectedIndex += count;
+    }
+    finishItemRangeUpdate(oldCount == 0, firstRaw, firstRaw >= position ? firstRaw + count : firstRaw);
+  }
+
+  private void applyItemRangeRemoved(int position, int count) {
+    int newCount = adapter.getRawCount();
+    int end = position + count;
+    int firstRaw = changingFirstRaw;
+    if (longestItemLength >= 0) {
+      if (longestItemIndex >= end) {
+        longestItemIndex -= count;
+      } else if (longestItemIndex >= position) {
+        invalidateLongestItem();
+      }
+    }
+    boolean selectionRemoved = selectedIndex >= position && selectedIndex < end;
+    if (selectedIndex >= end) {
+      selectedIndex -= count;
+    } else if (selectionRemoved) {
+      // Keep the index if it is still valid, as when the items are replaced
+      selectedIndex = Math.max(0, Math.min(selectedIndex, newCount - 1));
+    }
+    int newFirstRaw = firstRaw >= end ? firstRaw - count : Math.min(firstRaw, position);
+    finishItemRangeUpdate(selectionRemoved, firstRaw, newFirstRaw);
+  }
+
+  private void applyItemMoved(int fromPosition, int toPosition) {
+    int firstRaw = changingFirstRaw;
+    if (longestItemLength >= 0) {
+      longestItemIndex = movedPosition(longestItemIndex, fromPosition, toPosition);
+    }
+    selectedIndex = movedPosition(selectedIndex, fromPosition, toPosition);
+    finishItemRangeUpdate(false, firstRaw, firstRaw);
+  }
+
+  private void applyItemRangeChanged(int position, int count) {
+    int end = position + count;
+    if (longestItemLength >= 0) {
+      if (longestItemIndex >= position && longestItemIndex < end) {
+        invalidateLongestItem();
+      } else {
+        for (int i = position; i < end; i++) {
+          measureLongestItemCandidate(i);
+        }
+      }
+    }
+    int firstRaw = getFirstVisibleRawPosition(adapter.getRawCount());
+    finishItemRangeUpdate(selectedIndex >= position && selectedIndex < end, firstRaw, firstRaw);
+  }
+
+  /**
+   * Apply the shifted selection, refresh the label if the selected item changed and let the dropdown bind the affected
+   * rows, keeping its scroll position.
+   *
+   * @param selectedItemChanged {@code true} if a different item is now at the selected index
+   * @param firstRaw the position in the backing data of the first row shown before the change, or -1
+   * @param newFirstRaw the position of that row's item after the change
+   */
+  private void finishItemRangeUpdate(boolean selectedItemChanged, int firstRaw, int newFirstRaw) {
+    int newCount = adapter.getRawCount();
+    adapter.notifyItemSelected(selectedIndex);
+    if (selectedItemChanged) {
+      if (newCount == 0) {
+        setText("");
+      } else if (!nothingSelected || TextUtils.isEmpty(hintText)) {
+        setSelectedItemText();
+      }
+    }
+    View firstChild = listView.getChildAt(0);
+    int firstTop = firstChild == null ? 0 : firstChild.getTop();
+    // The items observer resizes the popup if it is showing
+    adapter.notifyRowsChanged();
+    if (firstRaw >= 0 && newFirstRaw < newCount) {
+      listView.setSelectionFromTop(adapter.toVisiblePosition(newFirstRaw, newCount), firstTop);
+    }
+  }
+
+  /**
+   * @return the position in the backing data of the first row in the open dropdown, or -1 if it isn't showing
+   */
+  private int getFirstVisibleRawPosition(int count) {
+    if (!popupWindow.isShowing() || listView.getChildCount() == 0) {
+      return -1;
+    }
+    return adapter.toRawPosition(listView.getFirstVisiblePosition(), count);
+  }
+
+  private static int movedPosition(int position, int fromPosition, int toPosition) {
+    if (position == fromPosition) {
+      return toPosition;
+    } else if (fromPosition < toPosition && position > fromPosition && position <= toPosition) {
+      return position - 1;
+    } else if (toPosition < fromPosition && position >= toPosition && position < fromPosition) {
+      return position + 1;
+    }
+    return position;
+  }
+
   /**
    * Get the list of items in the adapter
    *
@@ -482,12 +1216,30 @@ public class MaterialSpinner extends TextView {
    * Show the dropdown menu
    */
   public void expand() {
+    if (collapsing && popupWindow.isShowing()) {
+      // Still fading out; fade back in
+      collapsing = false;
+      if (!hideArrow) {
+        animateArrow(true);
+      }
+      nothingSelected = true;
+      animateDropdown(true);
+      return;
+    }
     if (canShowPopup()) {
       if (!hideArrow) {
         animateArrow(true);
       }
       nothingSelected = true;
+      restorePopup();
+      resolvePopupGeometry();
+      if (openAtSelection) {
+        scrollToSelection();
+      }
       popupWindow.showAsDropDown(this);
+      if (flatDropdown) {
+        animateDropdown(true);
+      }
     }
   }
 
@@ -495,12 +1247,220 @@ public class MaterialSpinner extends TextView {
    * Closes the dropdown menu
    */
   public void collapse() {
-    if (!hideArrow) {
-      animateArrow(false);
+    if (!isPopupShowing()) {
+      return;
     }
+    if (flatDropdown) {
+      collapsing = true;
+      animateDropdown(false);
+    } else {
+      // The dismiss listener rotates the arrow back
+      popupWindow.dismiss();
+    }
+  }
+
+  private boolean isPopupShowing() {
+    return popupWindow.isShowing() && !collapsing;
+  }
+
+  /**
+   * Dismiss the popup right away, without an exit animation.
+   */
+  private void dismissPopup() {
+    cancelFade();
+    collapsing = false;
     popupWindow.dismiss();
   }
 
+  private void cancelFade() {
+    if (fadeAnimator != null && fadeAnimator.isStarted()) {
+      fadeAnimator.cancel();
+      fadingView.setLayerType(LAYER_TYPE_NONE, null);
+    }
+  }
+
+  /**
+   * Fade the popup window in or out. The popup's root view (which draws the single background in flat mode) is
+   * rendered into a hardware layer for the duration of the animation, so each frame only composites a texture.
+   */
+  private void animateDropdown(boolean show) {
+    View root = listView.getRootView();
+    if (fadeAnimator == null) {
+      // Reused for every fade: ViewPropertyAnimator allocates an animator and end action bookkeeping per animation
+      fadeAnimator = ValueAnimator.ofFloat(0f, 1f);
+      fadeAnimator.setInterpolator(new LinearInterpolator());
+      fadeAnimator.addUpdateListener(fadeListener);
+    } else {
+      fadeAnimator.cancel();
+    }
+    if (show) {
+      if (!popupWindow.isShowing()) {
+        return;
+      }
+      if (root.getAlpha() == 1f) {
+        root.setAlpha(0f);
+      }
+    }
+    fadingView = root;
+    fadeFrom = root.getAlpha();
+    fadeTo = show ? 1f : 0f;
+    root.setLayerType(LAYER_TYPE_HARDWARE, null);
+    fadeAnimator.setDuration(show ? DROPDOWN_ENTER_DURATION : DROPDOWN_EXIT_DURATION);
+    fadeAnimator.start();
+  }
+
+  /**
+   * Draw the dropdown with as little overdraw as possible: the popup window draws a single flat background (tinted
+   * directly instead of through a color filter), rows draw nothing and the list's selector is only drawn behind the
+   * pressed row. The popup fades in and out on a hardware layer instead of using a window animation.
+   *
+   * @param flat {@code true} to use the flat dropdown
+   */
+  public void setFlatDropdown(boolean flat) {
+    if (flatDropdown == flat) {
+      return;
+    }
+    dismissPopup();
+    flatDropdown = flat;
+    setPopupBackground();
+    if (backgroundColor != Color.WHITE) {
+      setBackgroundColor(backgroundColor);
+    }
+    updateDropdownRendering();
+  }
+
+  /**
+   * @return {@code true} if the flat, low-overdraw dropdown is used
+   * @see #setFlatDropdown(boolean)
+   */
+  public boolean isFlatDropdown() {
+    return flatDropdown;
+  }
+
+  /**
+   * Draw each dropdown row as a single line of plain text from a cached layout, instead of inflating a
+   * {@link TextView} per row. Binding and drawing rows is cheaper, but spans are ignored and text is ellipsized at the
+   * end. Rows with icons are always text views.
+   *
+   * @param lightweightRows {@code true} to use lightweight rows
+   * @see TextRowView
+   */
+  public void setLightweightRows(boolean lightweightRows) {
+    if (this.lightweightRows == lightweightRows) {
+      return;
+    }
+    this.lightweightRows = lightweightRows;
+    if (adapter != null) {
+      adapter.setLightweightRows(lightweightRows);
+      adapter.clearPreparedRows();
+      listView.setAdapter(adapter);
+    }
+  }
+
+  /**
+   * Open the dropdown scrolled so the selected item is centered, and show the selected item with a light highlight
+   * instead of leaving it out. Only the rows around the selection are bound when the dropdown opens, so a long list
+   * with an item near the end selected doesn't have to be flung through.
+   *
+   * @param openAtSelection {@code true} to open the dropdown at the selected item
+   */
+  public void setOpenAtSelection(boolean openAtSelection) {
+    if (this.openAtSelection == openAtSelection) {
+      return;
+    }
+    this.openAtSelection = openAtSelection;
+    if (adapter != null) {
+      cancelPrepare();
+      adapter.setSelectedItemHighlighted(openAtSelection);
+      // The selected item is added to or removed from the dropdown
+      adapter.notifyDataSetChanged();
+    }
+  }
+
+  /**
+   * @return {@code true} if the dropdown opens at the selected item
+   * @see #setOpenAtSelection(boolean)
+   */
+  public boolean isOpenAtSelection() {
+    return openAtSelection;
+  }
+
+  /**
+   * Scroll the dropdown so the selected item, or the item after it if it is hidden, is centered. The list lays out
+   * from that position, so only the rows around it are bound.
+   */
+  private void scrollToSelection() {
+    if (adapter.getCount() == 0) {
+      return;
+    }
+    int itemHeight = getResources().getDimensionPixelSize(R.dimen.ms__item_height);
+    int top = (getExpectedPopupHeight(itemHeight) - itemHeight) / 2;
+    listView.setSelectionFromTop(getSelectionDropdownPosition(), Math.max(0, top));
+  }
+
+  private int getSelectionDropdownPosition() {
+    int count = adapter.getCount();
+    return Math.max(0, Math.min(adapter.toVisiblePosition(selectedIndex, adapter.getRawCount()), count - 1));
+  }
+
+  /**
+   * @return the height of the dropdown once shown, estimated from the item count if it wraps its content
+   */
+  private int getExpectedPopupHeight(int itemHeight) {
+    int height = popupWindow.getHeight();
+    if (height > 0) {
+      return height;
+    }
+    int maxHeight = popupWindowMaxHeight > 0 ? popupWindowMaxHeight : getResources().getDisplayMetrics().heightPixels;
+    return (int) Math.min(maxHeight, (long) adapter.getCount() * itemHeight);
+  }
+
+  /**
+   * @return {@code true} if dropdown rows are drawn with {@link TextRowView}
+   * @see #setLightweightRows(boolean)
+   */
+  public boolean isLightweightRows() {
+    return lightweightRows;
+  }
+
+  private void setPopupBackground() {
+    Context context = getContext();
+    if (flatDropdown && Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+      GradientDrawable background = new GradientDrawable();
+      background.setColor(backgroundColor);
+      background.setCornerRadius(getResources().getDisplayMetrics().density);
+      popupWindow.setBackgroundDrawable(background);
+    } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+      popupWindow.setBackgroundDrawable(Utils.getDrawable(context, R.drawable.ms__drawable));
+    } else {
+      // The shadow is part of the 9-patch, so it stays the background before Lollipop
+      popupWindow.setBackgroundDrawable(Utils.getDrawable(context, R.drawable.ms__drop_down_shadow));
+    }
+  }
+
+  private void updateDropdownRendering() {
+    if (flatDropdown) {
+      popupWindow.setAnimationStyle(Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN ? 0 : -1);
+      if (backgroundSelector != 0) {
+        listView.setSelector(backgroundSelector);
+      }
+      listView.setDrawSelectorOnTop(false);
+    } else {
+      popupWindow.setAnimationStyle(-1);
+      listView.setSelector(defaultListSelector);
+    }
+    if (adapter != null) {
+      adapter.setBackgroundSelector(getRowBackgroundSelector());
+      adapter.clearPreparedRows();
+      // Re-setting the adapter drops recycled rows that still have their old backgrounds
+      listView.setAdapter(adapter);
+    }
+  }
+
+  private int getRowBackgroundSelector() {
+    return flatDropdown ? 0 : backgroundSelector;
+  }
+
   /**
    * Set the tint color for the dropdown arrow
    *
@@ -515,7 +1475,11 @@ public class MaterialSpinner extends TextView {
   }
 
   private boolean canShowPopup() {
-    Activity activity = getActivity();
+    Activity activity = hostActivity == null ? null : hostActivity.get();
+    if (activity == null) {
+      activity = getActivity();
+      hostActivity = activity == null ? null : new WeakReference<>(activity);
+    }
     if (activity == null || activity.isFinishing()) {
       return false;
     }
@@ -540,12 +1504,16 @@ public class MaterialSpinner extends TextView {
   }
 
   private void animateArrow(boolean shouldRotateUp) {
-    int start = shouldRotateUp ? 0 : 10000;
-    int end = shouldRotateUp ? 10000 : 0;
-    ObjectAnimator animator = ObjectAnimator.ofInt(arrowDrawable, "level", start, end);
+    ObjectAnimator animator = shouldRotateUp ? arrowUpAnimator : arrowDownAnimator;
+    ObjectAnimator reverse = shouldRotateUp ? arrowDownAnimator : arrowUpAnimator;
+    reverse.cancel();
     animator.start();
   }
 
+  private void setSelectedItemText() {
+    adapter.bindRawItemText(this, labelBuffer, selectedIndex);
+  }
+
   /**
    * Set the maximum height of the dropdown menu.
    *
@@ -553,7 +1521,7 @@ public class MaterialSpinner extends TextView {
    */
   public void setDropdownMaxHeight(int height) {
     popupWindowMaxHeight = height;
-    popupWindow.setHeight(calculatePopupWindowHeight());
+    invalidatePopupGeometry();
   }
 
   /**
@@ -563,7 +1531,108 @@ public class MaterialSpinner extends TextView {
    */
   public void setDropdownHeight(int height) {
     popupWindowHeight = height;
-    popupWindow.setHeight(calculatePopupWindowHeight());
+    invalidatePopupGeometry();
+  }
+
+  /**
+   * Release memory held by this spinner and its adapter. Spinners call this themselves when the system trims memory;
+   * it only needs to be called directly to release memory early, e.g. when a screen with many spinners is hidden.
+   *
+   * <ul>
+   * <li>{@link ComponentCallbacks2#TRIM_MEMORY_RUNNING_LOW} and above: prepared rows, cached text layouts and half of
+   * the shared icon cache.</li>
+   * <li>{@link ComponentCallbacks2#TRIM_MEMORY_UI_HIDDEN} and above: also the dropdown's rows, recycled rows and
+   * background, unless it is showing.</li>
+   * <li>{@link ComponentCallbacks2#TRIM_MEMORY_RUNNING_CRITICAL} and {@link ComponentCallbacks2#TRIM_MEMORY_BACKGROUND}
+   * and above: also every shared icon, sort keys and the cached widest item.</li>
+   * </ul>
+   *
+   * <p>Everything released is rebuilt lazily, at the latest when the dropdown is next expanded.</p>
+   *
+   * @param level a trim level from {@link ComponentCallbacks2}
+   */
+  public void trimMemory(int level) {
+    int tier = MaterialSpinnerBaseAdapter.trimTier(level);
+    if (tier == 0) {
+      return;
+    }
+    cancelPrepare();
+    IconLoader.trimCache(tier >= MaterialSpinnerBaseAdapter.TRIM_ALL);
+    if (adapter != null) {
+      adapter.trimMemory(tier);
+    }
+    if (tier >= MaterialSpinnerBaseAdapter.TRIM_ROWS && !popupWindow.isShowing() && !popupReleased) {
+      popupReleased = true;
+      listView.setAdapter(null);
+      popupWindow.setBackgroundDrawable(null);
+    }
+    if (tier >= MaterialSpinnerBaseAdapter.TRIM_ALL && longestItemLength >= 0) {
+      longestItemLength = -1;
+      longestItemText = null;
+    }
+  }
+
+  /**
+   * Estimate the memory held by this spinner's caches: dropdown rows, prepared rows, cached text layouts and sort keys,
+   * plus the icon cache shared by all spinners. The estimate is rough; it is meant for monitoring and for deciding when
+   * to call {@link #trimMemory(int)}.
+   *
+   * @return the estimated number of bytes
+   */
+  public long getRetainedBytesEstimate() {
+    long bytes = IconLoader.getCacheBytes();
+    if (adapter != null) {
+      bytes += adapter.getRetainedBytesEstimate();
+    }
+    if (!popupReleased) {
+      bytes += listView.getChildCount() * (long) MaterialSpinnerBaseAdapter.ROW_BYTES_ESTIMATE;
+    }
+    return bytes;
+  }
+
+  /**
+   * Rebuild what {@link #trimMemory(int)} released from the dropdown.
+   */
+  private void restorePopup() {
+    if (!popupReleased) {
+      return;
+    }
+    popupReleased = false;
+    setPopupBackground();
+    if (backgroundColor != Color.WHITE) {
+      tintPopupBackground();
+    }
+    listView.setAdapter(adapter);
+  }
+
+  /**
+   * Mark the popup's size as stale. It is recomputed when the dropdown is next shown, or right away if it is showing.
+   */
+  private void invalidatePopupGeometry() {
+    popupGeometryDirty = true;
+    if (popupWindow.isShowing()) {
+      resolvePopupGeometry();
+    }
+  }
+
+  /**
+   * Apply the width from the last measure pass and the height for the current items to the popup, if they are stale.
+   */
+  private void resolvePopupGeometry() {
+    if (!popupGeometryDirty) {
+      return;
+    }
+    popupGeometryDirty = false;
+    int height = calculatePopupWindowHeight();
+    if (popupWindow.getWidth() == popupWidth && popupWindow.getHeight() == height) {
+      return;
+    }
+    popupWindow.setWidth(popupWidth);
+    popupWindow.setHeight(height);
+    if (popupWindow.isShowing()) {
+      // -1 uses the sizes set above
+      popupWindow.update(this, -1, -1);
+    }
   }
 
   private int calculatePopupWindowHeight() {
@@ -578,7 +1647,7 @@ public class MaterialSpinner extends TextView {
         && popupWindowHeight != WindowManager.LayoutParams.WRAP_CONTENT
         && popupWindowHeight <= listViewHeight) {
       return popupWindowHeight;
-    } else if (listViewHeight == 0 && adapter.getItems().size() == 1) {
+    } else if (listViewHeight == 0 && adapter.getRawCount() == 1) {
       return (int) itemHeight;
     }
     return WindowManager.LayoutParams.WRAP_CONTENT;
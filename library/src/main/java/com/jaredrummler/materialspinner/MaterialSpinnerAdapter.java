@@ -18,38 +18,514 @@
 package com.jaredrummler.materialspinner;
 
 import android.content.Context;
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
-public class MaterialSpinnerAdapter<T> extends MaterialSpinnerBaseAdapter {
+public class MaterialSpinnerAdapter<T> extends MaterialSpinnerBaseAdapter<T> {
 
-  private final List<T> items;
+  /** A rough size of a collation key for a short item */
+  private static final int COLLATION_KEY_BYTES_ESTIMATE = 64;
+
+  private final AtomicInteger submitGeneration = new AtomicInteger();
+  /** Guards {@link #ownedItems} against a list being submitted from another thread */
+  private final Object lock = new Object();
+  private volatile Snapshot<T> snapshot;
+  private volatile Collator collator;
+  /**
+   * The list changed in place by the item operations. Reset when a list is submitted, since the diff reads the current
+   * items, so the next item operation copies them first.
+   */
+  private ArrayList<T> ownedItems;
+  /** The sorted snapshot changed in place by {@link #insertSorted(Object)}, reset like {@link #ownedItems} */
+  private Snapshot<T> ownedSnapshot;
 
   public MaterialSpinnerAdapter(Context context, List<T> items) {
     super(context);
-    this.items = items;
+    this.snapshot = new Snapshot<>(items, items, null, null, null, null);
+  }
+
+  @Override public int getRawCount() {
+    return snapshot.items.size();
   }
 
   @Override public int getCount() {
-    int size = items.size();
-    if (size == 1 || isHintEnabled()) return size;
-    return size - 1;
+    return getVisibleCount(snapshot.items.size());
   }
 
   @Override public T getItem(int position) {
-    if (isHintEnabled()) {
-      return items.get(position);
-    } else if (position >= getSelectedIndex() && items.size() != 1) {
-      return items.get(position + 1);
-    } else {
-      return items.get(position);
-    }
+    List<T> items = snapshot.items;
+    return items.get(toRawPosition(position, items.size()));
   }
 
   @Override public T get(int position) {
-    return items.get(position);
+    return snapshot.items.get(position);
   }
 
+  /**
+   * Get the items in the order they are shown. When sorting is enabled this is the sorted list, otherwise it is the
+   * list that was passed to the adapter.
+   */
   @Override public List<T> getItems() {
-    return items;
+    return snapshot.items;
+  }
+
+  /**
+   * Sort the items by their text using a {@link Collator}, e.g. {@code Collator.getInstance(locale)}. A
+   * {@link java.text.CollationKey} is computed once per item and the items are sorted on a background thread, so
+   * the order changes once sorting has finished. Positions reported by the spinner are positions in the sorted list;
+   * use {@link #getOriginalPosition(int)} to map them back to the order the items were given in.
+   *
+   * @param collator the collator, or {@code null} to show the items in their original order
+   */
+  @MainThread public void setSortOrder(@Nullable Collator collator) {
+    this.collator = collator == null ? null : (Collator) collator.clone();
+    submitSnapshot(new ArrayList<>(snapshot.original));
+  }
+
+  /**
+   * @return {@code true} if the items are shown sorted
+   */
+  public boolean isSorted() {
+    return collator != null;
+  }
+
+  /**
+   * Map a position in the displayed (sorted) list to the position in the list the items were given in.
+   *
+   * @param position the position in {@link #getItems()}
+   * @return the original position
+   */
+  public int getOriginalPosition(int position) {
+    Snapshot<T> current = snapshot;
+    return current.sortedToOriginal == null ? position : current.sortedToOriginal[position];
+  }
+
+  /**
+   * Map a position in the list the items were given in to the position in the displayed (sorted) list.
+   *
+   * @param originalPosition the original position
+   * @return the position in {@link #getItems()}
+   */
+  public int getSortedPosition(int originalPosition) {
+    Snapshot<T> current = snapshot;
+    return current.originalToSorted == null ? originalPosition : current.originalToSorted[originalPosition];
+  }
+
+  /**
+   * Insert an item at its sorted position. The position is found with a binary search over the cached collation keys,
+   * so the list isn't re-sorted, and only the rows after the item are bound again. Sorting must be enabled with
+   * {@link #setSortOrder(Collator)} and finished.
+   *
+   * @param item the item to add
+   * @return the position of the item in the sorted list
+   */
+  @MainThread public int insertSorted(T item) {
+    Collator collator = this.collator;
+    if (collator == null || snapshot.sortedToOriginal == null) {
+      throw new IllegalStateException("Sorting is not enabled");
+    }
+    CollationKey key = collator.getCollationKey(String.valueOf(item));
+    int position;
+    synchronized (lock) {
+      Snapshot<T> current = snapshot;
+      if (current != ownedSnapshot || current.keys == null) {
+        // Shared with a pending diff, or the keys were released by trimMemory
+        current = current.copy(collator);
+        snapshot = current;
+        ownedSnapshot = current;
+      }
+      position = current.insertSorted(item, key);
+    }
+    dispatchItemRangeInserted(position, 1);
+    return position;
+  }
+
+  /**
+   * Add an item to the end of the list.
+   *
+   * @param item the item to add
+   * @see #insert(int, Object)
+   */
+  @MainThread public void add(T item) {
+    insert(getRawCount(), item);
+  }
+
+  /**
+   * Add items to the end of the list.
+   *
+   * @param items the items to add
+   */
+  @MainThread public void addAll(@NonNull Collection<? extends T> items) {
+    int position;
+    synchronized (lock) {
+      List<T> list = mutableItems();
+      position = list.size();
+      list.addAll(items);
+    }
+    if (!items.isEmpty()) {
+      dispatchItemRangeInserted(position, items.size());
+    }
+  }
+
+  /**
+   * Insert an item. Unlike replacing the list, only the rows after the item are bound again and the spinner only
+   * measures the new item to update its width.
+   *
+   * <p>The item operations change the list in place and are only available while the items are not sorted. The first
+   * operation after {@link #submitList(List)} copies the list, since the background comparison may still be reading
+   * it. A submitted list that is still being compared replaces the items once it is applied, including any changes
+   * made in the meantime.</p>
+   *
+   * @param position the position in {@link #getItems()}
+   * @param item the item to insert
+   * @throws IllegalStateException if the items are sorted
+   */
+  @MainThread public void insert(int position, T item) {
+    synchronized (lock) {
+      mutableItems().add(position, item);
+    }
+    dispatchItemRangeInserted(position, 1);
+  }
+
+  /**
+   * Remove the item at a position.
+   *
+   * @param position the position in {@link #getItems()}
+   * @return the removed item
+   * @see #insert(int, Object)
+   */
+  @MainThread public T remove(int position) {
+    T item;
+    synchronized (lock) {
+      item = mutableItems().remove(position);
+    }
+    dispatchItemRangeRemoved(position, 1);
+    return item;
+  }
+
+  /**
+   * Remove a range of items.
+   *
+   * @param position the position of the first item to remove
+   * @param count the number of items to remove
+   */
+  @MainThread public void removeRange(int position, int count) {
+    int size = getRawCount();
+    if (position < 0 || count < 0 || position + count > size) {
+      throw new IndexOutOfBoundsException("position=" + position + ", count=" + count + ", size=" + size);
+    }
+    synchronized (lock) {
+      mutableItems().subList(position, position + count).clear();
+    }
+    if (count > 0) {
+      dispatchItemRangeRemoved(position, count);
+    }
+  }
+
+  /**
+   * Move an item to another position. The selection follows the selected item.
+   *
+   * @param fromPosition the current position of the item
+   * @param toPosition the position of the item after the move
+   */
+  @MainThread public void move(int fromPosition, int toPosition) {
+    if (fromPosition == toPosition) {
+      get(fromPosition); // bounds check
+      return;
+    }
+    synchronized (lock) {
+      List<T> list = mutableItems();
+      list.add(toPosition, list.remove(fromPosition));
+    }
+    dispatchItemMoved(fromPosition, toPosition);
+  }
+
+  /**
+   * Replace the item at a position.
+   *
+   * @param position the position in {@link #getItems()}
+   * @param item the new item
+   * @return the replaced item
+   */
+  @MainThread public T set(int position, T item) {
+    T old;
+    synchronized (lock) {
+      old = mutableItems().set(position, item);
+    }
+    dispatchItemRangeChanged(position, 1);
+    return old;
+  }
+
+  /**
+   * Get the list to change in place. The list is copied if it isn't owned by this adapter yet (e.g. it was passed to
+   * the constructor) or if a background diff may be reading it. Must be called while holding {@link #lock}, and the
+   * list must only be changed while still holding it, so a list can't be submitted between the check and the change.
+   */
+  private List<T> mutableItems() {
+    if (collator != null) {
+      throw new IllegalStateException("Items can't be changed by position while sorted");
+    }
+    Snapshot<T> current = snapshot;
+    if (current.items != ownedItems) {
+      ownedItems = new ArrayList<>(current.items);
+    }
+    // A new snapshot tells a pending submitList that the items changed
+    snapshot = new Snapshot<>(ownedItems, ownedItems, null, null, null, null);
+    return ownedItems;
+  }
+
+  @Override void trimMemory(int tier) {
+    super.trimMemory(tier);
+    Snapshot<T> current = snapshot;
+    if (tier >= TRIM_ALL && current.keys != null) {
+      // The order is kept; insertSorted computes the keys again if it is called
+      snapshot = current.withoutKeys();
+    }
+  }
+
+  @Override long getRetainedBytesEstimate() {
+    Snapshot<T> current = snapshot;
+    return super.getRetainedBytesEstimate()
+        + (current.keys == null ? 0 : current.items.size() * (long) COLLATION_KEY_BYTES_ESTIMATE);
+  }
+
+  /**
+   * Replace the items with a new list. May be called from any thread. The list is copied immediately, so the caller
+   * is free to modify it afterwards. The new list is compared with the current one (and sorted, if enabled) on a
+   * background thread and applied on the main thread, where the selected item is kept (by identity) and an open
+   * dropdown keeps its scroll position. If another list is submitted before this one is applied, this one is dropped.
+   * When sorted, the collation keys of items whose text didn't change are reused.
+   *
+   * @param list the new items
+   */
+  public void submitList(@NonNull List<T> list) {
+    submitSnapshot(new ArrayList<>(list));
+  }
+
+  void submitSnapshot(final List<T> list) {
+    final int generation = submitGeneration.incrementAndGet();
+    final Collator collator = this.collator;
+    final Collator sortCollator = collator == null ? null : (Collator) collator.clone();
+    final Snapshot<T> current;
+    synchronized (lock) {
+      // Taken on the calling thread. The items are no longer changed in place once the diff may read them.
+      current = snapshot;
+      ownedItems = null;
+      ownedSnapshot = null;
+    }
+    // Keys computed with the same collator can be reused for items whose text didn't change
+    final boolean reuseKeys = collator != null && current.keysCollator == collator;
+    BackgroundThread.submit(new Runnable() {
+
+      @Override public void run() {
+        if (generation != submitGeneration.get()) {
+          return;
+        }
+        final Snapshot<T> next = Snapshot.create(list, sortCollator, collator, reuseKeys ? current : null);
+        final int[] oldToNew = diff(current.items, next.items);
+        BackgroundThread.postToMain(new Runnable() {
+
+          @Override public void run() {
+            if (generation != submitGeneration.get()) {
+              return; // a newer list was submitted
+            }
+            if (snapshot != current) {
+              // The items changed while diffing (e.g. insertSorted). Diff against the new items.
+              submitSnapshot(list);
+              return;
+            }
+            snapshot = next;
+            if (oldToNew != null) {
+              dispatchItemsReplaced(current.items.size(), oldToNew);
+            }
+          }
+        });
+      }
+    });
+  }
+
+  /**
+   * Compute where each item of the old list ended up in the new list, matching items by identity.
+   *
+   * @return the new position of each old item or -1 if it was removed, or {@code null} if the lists are equal.
+   */
+  private static <T> int[] diff(List<T> oldList, List<T> newList) {
+    int oldSize = oldList.size();
+    int newSize = newList.size();
+    if (oldSize == newSize) {
+      boolean same = true;
+      for (int i = 0; i < oldSize && same; i++) {
+        T oldItem = oldList.get(i);
+        same = oldItem == null ? newList.get(i) == null : oldItem.equals(newList.get(i));
+      }
+      if (same) {
+        return null;
+      }
+    }
+    IdentityHashMap<T, Integer> newPositions = new IdentityHashMap<>(newSize);
+    for (int i = newSize - 1; i >= 0; i--) {
+      newPositions.put(newList.get(i), i);
+    }
+    int[] oldToNew = new int[oldSize];
+    Arrays.fill(oldToNew, -1);
+    for (int i = 0; i < oldSize; i++) {
+      Integer position = newPositions.get(oldList.get(i));
+      if (position != null) {
+        oldToNew[i] = position;
+      }
+    }
+    return oldToNew;
+  }
+
+  /**
+   * A view of the adapter's items. Replaced as a whole so background threads always see a consistent list, sort keys
+   * and position maps. Only a snapshot no background thread can see is changed in place, by
+   * {@link #insertSorted(Object)}.
+   */
+  private static final class Snapshot<T> {
+
+    /** The items in the order they were given */
+    final List<T> original;
+    /** The items in the order they are shown */
+    final List<T> items;
+    /** The collation key of each shown item, or null if unsorted. May be longer than the list. */
+    CollationKey[] keys;
+    /** The collator set on the adapter when the keys were computed */
+    final Collator keysCollator;
+    int[] sortedToOriginal;
+    int[] originalToSorted;
+
+    Snapshot(List<T> original, List<T> items, CollationKey[] keys, Collator keysCollator, int[] sortedToOriginal,
+        int[] originalToSorted) {
+      this.original = original;
+      this.items = items;
+      this.keys = keys;
+      this.keysCollator = keysCollator;
+      this.sortedToOriginal = sortedToOriginal;
+      this.originalToSorted = originalToSorted;
+    }
+
+    /**
+     * @param collator computes the keys on the calling thread
+     * @param keysCollator the collator set on the adapter
+     * @param previous a snapshot sorted with the same collator whose keys can be reused, or {@code null}
+     */
+    static <T> Snapshot<T> create(List<T> list, Collator collator, Collator keysCollator, Snapshot<T> previous) {
+      if (collator == null) {
+        return new Snapshot<>(list, list, null, null, null, null);
+      }
+      HashMap<String, CollationKey> previousKeys = null;
+      if (previous != null && previous.keys != null) {
+        int previousSize = previous.items.size();
+        previousKeys = new HashMap<>(previousSize * 2);
+        for (int i = 0; i < previousSize; i++) {
+          CollationKey key = previous.keys[i];
+          previousKeys.put(key.getSourceString(), key);
+        }
+      }
+      int size = list.size();
+      final CollationKey[] originalKeys = new CollationKey[size];
+      Integer[] order = new Integer[size];
+      for (int i = 0; i < size; i++) {
+        String text = String.valueOf(list.get(i));
+        CollationKey key = previousKeys == null ? null : previousKeys.get(text);
+        originalKeys[i] = key != null ? key : collator.getCollationKey(text);
+        order[i] = i;
+      }
+      // Arrays.sort on objects is stable, so equal items keep their original order
+      Arrays.sort(order, new Comparator<Integer>() {
+
+        @Override public int compare(Integer a, Integer b) {
+          return originalKeys[a].compareTo(originalKeys[b]);
+        }
+      });
+      List<T> sorted = new ArrayList<>(size);
+      CollationKey[] keys = new CollationKey[size];
+      int[] sortedToOriginal = new int[size];
+      int[] originalToSorted = new int[size];
+      for (int i = 0; i < size; i++) {
+        int original = order[i];
+        sorted.add(list.get(original));
+        keys[i] = originalKeys[original];
+        sortedToOriginal[i] = original;
+        originalToSorted[original] = i;
+      }
+      return new Snapshot<>(list, sorted, keys, keysCollator, sortedToOriginal, originalToSorted);
+    }
+
+    /**
+     * Copy this snapshot with the collation keys dropped. {@link #copy(Collator)} computes them again.
+     */
+    Snapshot<T> withoutKeys() {
+      return new Snapshot<>(original, items, null, null, sortedToOriginal, originalToSorted);
+    }
+
+    /**
+     * Copy this sorted snapshot so it can be changed in place, computing the collation keys if they were dropped.
+     */
+    Snapshot<T> copy(Collator collator) {
+      int size = items.size();
+      int capacity = size + (size >> 1) + 1;
+      CollationKey[] newKeys = new CollationKey[capacity];
+      if (keys != null) {
+        System.arraycopy(keys, 0, newKeys, 0, size);
+      } else {
+        for (int i = 0; i < size; i++) {
+          newKeys[i] = collator.getCollationKey(String.valueOf(items.get(i)));
+        }
+      }
+      return new Snapshot<>(new ArrayList<>(original), new ArrayList<>(items), newKeys, collator,
+          Arrays.copyOf(sortedToOriginal, capacity), Arrays.copyOf(originalToSorted, capacity));
+    }
+
+    /**
+     * Insert an item after the items with equal keys, keeping the sort stable. The item is appended to the original
+     * order. Changes this snapshot in place.
+     *
+     * @return the sorted position of the item
+     */
+    int insertSorted(T item, CollationKey key) {
+      int size = items.size();
+      int low = 0;
+      int high = size;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (keys[mid].compareTo(key) <= 0) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      if (size == keys.length) {
+        int capacity = size + (size >> 1) + 1;
+        keys = Arrays.copyOf(keys, capacity);
+        sortedToOriginal = Arrays.copyOf(sortedToOriginal, capacity);
+        originalToSorted = Arrays.copyOf(originalToSorted, capacity);
+      }
+      System.arraycopy(keys, low, keys, low + 1, size - low);
+      keys[low] = key;
+      System.arraycopy(sortedToOriginal, low, sortedToOriginal, low + 1, size - low);
+      sortedToOriginal[low] = size;
+      for (int i = 0; i < size; i++) {
+        if (originalToSorted[i] >= low) {
+          originalToSorted[i]++;
+        }
+      }
+      originalToSorted[size] = low;
+      original.add(item);
+      items.add(low, item);
+      return low;
+    }
   }
-}
\ No newline at end of file
+}
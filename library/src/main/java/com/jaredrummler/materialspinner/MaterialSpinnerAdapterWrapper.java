@@ -18,6 +18,7 @@
 package com.jaredrummler.materialspinner;
 
 import android.content.Context;
+import android.database.DataSetObserver;
 import android.widget.ListAdapter;
 import java.util.ArrayList;
 import java.util.List;
@@ -25,26 +26,57 @@ import java.util.List;
 final class MaterialSpinnerAdapterWrapper extends MaterialSpinnerBaseAdapter {
 
   private final ListAdapter listAdapter;
+  /** Passes the wrapped adapter's changes on to this adapter's observers */
+  private final DataSetObserver wrappedObserver = new DataSetObserver() {
+
+    @Override public void onChanged() {
+      notifyDataSetChanged();
+    }
+
+    @Override public void onInvalidated() {
+      notifyDataSetInvalidated();
+    }
+  };
+  private int observerCount;
 
   public MaterialSpinnerAdapterWrapper(Context context, ListAdapter toWrap) {
     super(context);
     listAdapter = toWrap;
   }
 
+  @Override public void registerDataSetObserver(DataSetObserver observer) {
+    super.registerDataSetObserver(observer);
+    // Only observe the wrapped adapter while someone observes this one, so it doesn't keep this adapter alive
+    if (observerCount++ == 0) {
+      listAdapter.registerDataSetObserver(wrappedObserver);
+    }
+  }
+
+  @Override public void unregisterDataSetObserver(DataSetObserver observer) {
+    super.unregisterDataSetObserver(observer);
+    if (--observerCount == 0) {
+      listAdapter.unregisterDataSetObserver(wrappedObserver);
+    }
+  }
+
+  @Override public int getRawCount() {
+    return listAdapter.getCount();
+  }
+
   @Override public int getCount() {
-    int size = listAdapter.getCount();
-    if (size == 1 || isHintEnabled()) return size;
-    return size - 1;
+    return getVisibleCount(listAdapter.getCount());
   }
 
   @Override public Object getItem(int position) {
-    if (isHintEnabled()) {
-      return listAdapter.getItem(position);
-    } else if (position >= getSelectedIndex() && listAdapter.getCount() != 1) {
-      return listAdapter.getItem(position + 1);
-    } else {
-      return listAdapter.getItem(position);
-    }
+    return listAdapter.getItem(toRawPosition(position, listAdapter.getCount()));
+  }
+
+  @Override public boolean areAllItemsEnabled() {
+    return super.areAllItemsEnabled() && listAdapter.areAllItemsEnabled();
+  }
+
+  @Override public boolean isEnabled(int position) {
+    return super.isEnabled(position) && listAdapter.isEnabled(toRawPosition(position, listAdapter.getCount()));
   }
 
   @Override public Object get(int position) {
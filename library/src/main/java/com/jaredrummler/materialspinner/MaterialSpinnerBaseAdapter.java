@@ -17,8 +17,15 @@
 
 package com.jaredrummler.materialspinner;
 
+import android.content.ComponentCallbacks2;
 import android.content.Context;
 import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.ColorDrawable;
+import android.graphics.drawable.Drawable;
 import android.os.Build;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -27,11 +34,35 @@ import android.widget.BaseAdapter;
 import android.widget.TextView;
 import androidx.annotation.ColorInt;
 import androidx.annotation.DrawableRes;
+import androidx.annotation.Nullable;
+import java.util.ArrayList;
 import java.util.List;
 
 public abstract class MaterialSpinnerBaseAdapter<T> extends BaseAdapter {
 
-  private final Context context;
+  /**
+   * The size of the per-row buffer passed to {@link #bindItemText(TextView, char[], int)}. Large enough for any
+   * {@code long} in decimal.
+   */
+  protected static final int ROW_BUFFER_SIZE = 20;
+
+  /** Release caches that are cheap to rebuild: prepared rows and text layouts. See {@link #trimTier(int)}. */
+  static final int TRIM_CACHES = 1;
+  /** Also release the dropdown's rows and drawables while it isn't showing. */
+  static final int TRIM_ROWS = 2;
+  /** Release everything that can be rebuilt, including shared icons and sort keys. */
+  static final int TRIM_ALL = 3;
+  /** The alpha of the selected row's highlight */
+  private static final int HIGHLIGHT_ALPHA = 0x1F000000;
+  /** The alpha of a disabled row */
+  private static final float DISABLED_ALPHA = 0.38f;
+  /** A rough size of a dropdown row and its views, used to estimate retained memory. */
+  static final int ROW_BYTES_ESTIMATE = 2048;
+
+  /** The number of data changes remembered to decide whether a bound row is still current. Must be a power of two. */
+  private static final int CHANGE_LOG_SIZE = 16;
+
+  private Context context;
   private int selectedIndex;
   private int textColor;
   private int backgroundSelector;
@@ -40,20 +71,88 @@ public abstract class MaterialSpinnerBaseAdapter<T> extends BaseAdapter {
   private int popupPaddingBottom;
   private int popupPaddingRight;
   private boolean isHintEnabled;
+  private boolean highlightSelected;
+  private int dataVersion;
+  private final int[] changeStart = new int[CHANGE_LOG_SIZE];
+  private final int[] changeEnd = new int[CHANGE_LOG_SIZE];
+  private final ArrayList<View> preparedRows = new ArrayList<>();
+  private ItemsCallback itemsCallback;
+  private ItemIconProvider<T> iconProvider;
+  private boolean lightweightRows;
+  private TextLayoutCache layoutCache;
+  private ColorDrawable highlightDrawable;
+  private final PositionMap positionMap = new PositionMap();
+  private boolean notifyingRowsChanged;
 
   public MaterialSpinnerBaseAdapter(Context context) {
     this.context = context;
   }
 
   @Override public View getView(int position, View convertView, ViewGroup parent) {
-    final TextView textView;
     if (convertView == null) {
-      LayoutInflater inflater = LayoutInflater.from(context);
-      convertView = inflater.inflate(R.layout.ms__list_item, parent, false);
-      textView = (TextView) convertView.findViewById(R.id.tv_tinted_spinner);
-      textView.setTextColor(textColor);
+      convertView = takePreparedRow(position);
+    }
+    boolean textRow = useTextRows();
+    if (convertView == null || ((ViewHolder) convertView.getTag()).isTextRow() != textRow) {
+      convertView = textRow ? createTextRow() : createRow(parent);
+    }
+    ViewHolder holder = (ViewHolder) convertView.getTag();
+    if (!isBindingCurrent(holder, position)) {
+      bindRow(holder, position);
+    }
+    return convertView;
+  }
+
+  /**
+   * Check whether a row still shows the item at a position: it was bound to the position and none of the data changes
+   * since then touched it.
+   */
+  private boolean isBindingCurrent(ViewHolder holder, int position) {
+    if (holder.boundPosition != position) {
+      return false;
+    }
+    int behind = dataVersion - holder.boundVersion;
+    if (behind > CHANGE_LOG_SIZE) {
+      return false;
+    }
+    for (int version = holder.boundVersion + 1; version <= dataVersion; version++) {
+      int i = version & (CHANGE_LOG_SIZE - 1);
+      if (position >= changeStart[i] && position < changeEnd[i]) {
+        return false;
+      }
+    }
+    holder.boundVersion = dataVersion;
+    return true;
+  }
+
+  /**
+   * Record that the rows in a range of dropdown positions show different items from now on.
+   *
+   * @param start the first changed position
+   * @param end the position after the last changed one, or {@link Integer#MAX_VALUE} for the rest of the list
+   */
+  private void logChange(int start, int end) {
+    dataVersion++;
+    int i = dataVersion & (CHANGE_LOG_SIZE - 1);
+    changeStart[i] = start;
+    changeEnd[i] = end;
+  }
+
+  /**
+   * Record a change to a range of positions in the backing data, mapped to dropdown positions around the hidden items.
+   */
+  private void logRawChange(int start, int end) {
+    int size = getRawCount();
+    logChange(toVisiblePosition(start, size), end == Integer.MAX_VALUE ? end : toVisiblePosition(end, size));
+  }
 
-      textView.setPadding(popupPaddingLeft, popupPaddingTop, popupPaddingRight, popupPaddingBottom);
+  private View createRow(ViewGroup parent) {
+    LayoutInflater inflater = LayoutInflater.from(context);
+    View convertView = inflater.inflate(R.layout.ms__list_item, parent, false);
+    TextView textView = (TextView) convertView.findViewById(R.id.tv_tinted_spinner);
+    textView.setTextColor(textColor);
+
+    textView.setPadding(popupPaddingLeft, popupPaddingTop, popupPaddingRight, popupPaddingBottom);
 //
 //      int left, right, bottom, top;
 //      if (popupPaddingTop != -1) {
@@ -88,35 +187,472 @@ public abstract class MaterialSpinnerBaseAdapter<T> extends BaseAdapter {
 //        textView.setPadding(left, top, popupPaddingRight, bottom);
 //      }
 
-      if (backgroundSelector != 0) {
-        textView.setBackgroundResource(backgroundSelector);
+    if (backgroundSelector != 0) {
+      textView.setBackgroundResource(backgroundSelector);
+    }
+    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
+      Configuration config = context.getResources().getConfiguration();
+      if (config.getLayoutDirection() == View.LAYOUT_DIRECTION_RTL) {
+        textView.setTextDirection(View.TEXT_DIRECTION_RTL);
       }
-      if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
-        Configuration config = context.getResources().getConfiguration();
-        if (config.getLayoutDirection() == View.LAYOUT_DIRECTION_RTL) {
-          textView.setTextDirection(View.TEXT_DIRECTION_RTL);
-        }
+    }
+    convertView.setTag(new ViewHolder(textView, null, textView.getBackground()));
+    return convertView;
+  }
+
+  private View createTextRow() {
+    if (layoutCache == null) {
+      layoutCache = new TextLayoutCache(context, textColor);
+    }
+    TextRowView row = new TextRowView(context, layoutCache);
+    row.setPadding(popupPaddingLeft, popupPaddingTop, popupPaddingRight, popupPaddingBottom);
+    row.setMinimumHeight(context.getResources().getDimensionPixelSize(R.dimen.ms__item_height));
+    if (backgroundSelector != 0) {
+      row.setBackgroundResource(backgroundSelector);
+    }
+    row.setTag(new ViewHolder(null, row, row.getBackground()));
+    return row;
+  }
+
+  private boolean useTextRows() {
+    // Icons are drawn as compound drawables, so rows with icons stay text views
+    return lightweightRows && iconProvider == null;
+  }
+
+  private void bindRow(ViewHolder holder, int position) {
+    if (holder.rowView != null) {
+      bindItemText(holder.rowView, holder.buffer, position);
+    } else {
+      bindItemText(holder.textView, holder.buffer, position);
+      if (iconProvider != null || holder.hasIcon) {
+        bindIcon(holder, position);
       }
-      convertView.setTag(new ViewHolder(textView));
+    }
+    View row = holder.rowView != null ? holder.rowView : holder.textView;
+    boolean enabled = positionMap.getDisabledCount() == 0 || isEnabled(position);
+    if (row.isEnabled() != enabled) {
+      row.setEnabled(enabled);
+      row.setAlpha(enabled ? 1f : DISABLED_ALPHA);
+    }
+    boolean highlighted = isSelectedItemHighlighted() && toRawPosition(position, getRawCount()) == selectedIndex;
+    if (highlighted || holder.highlighted) {
+      // Also refreshed while highlighted, in case the text color changed
+      setHighlighted(holder, highlighted);
+    }
+    holder.boundPosition = position;
+    holder.boundVersion = dataVersion;
+  }
+
+  /**
+   * Inflate and bind a row ahead of time, so that showing the dropdown only has to lay it out. The row is handed to the
+   * list the next time it asks for a new view.
+   *
+   * @param parent the list the row will be shown in
+   * @param position the dropdown position to bind the row to
+   */
+  void prepareRow(ViewGroup parent, int position) {
+    View row = useTextRows() ? createTextRow() : createRow(parent);
+    bindRow((ViewHolder) row.getTag(), position);
+    preparedRows.add(row);
+  }
+
+  /**
+   * Drop rows created by {@link #prepareRow(ViewGroup, int)} that haven't been used.
+   */
+  void clearPreparedRows() {
+    for (int i = 0, size = preparedRows.size(); i < size; i++) {
+      IconLoader.Request request = ((ViewHolder) preparedRows.get(i).getTag()).iconRequest;
+      if (request != null) {
+        request.cancel();
+      }
+    }
+    preparedRows.clear();
+  }
+
+  int getPreparedRowCount() {
+    return preparedRows.size();
+  }
+
+  private View takePreparedRow(int position) {
+    int size = preparedRows.size();
+    if (size == 0) {
+      return null;
+    }
+    for (int i = 0; i < size; i++) {
+      if (((ViewHolder) preparedRows.get(i).getTag()).boundPosition == position) {
+        return preparedRows.remove(i);
+      }
+    }
+    return preparedRows.remove(size - 1);
+  }
+
+  /**
+   * Map a {@link android.content.ComponentCallbacks2} trim level to how much should be released.
+   *
+   * @param level the trim level
+   * @return 0 to keep everything, or {@link #TRIM_CACHES}, {@link #TRIM_ROWS} or {@link #TRIM_ALL}
+   */
+  static int trimTier(int level) {
+    if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND
+        || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+      return TRIM_ALL;
+    } else if (level >= ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN) {
+      return TRIM_ROWS;
+    } else if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+      return TRIM_CACHES;
+    }
+    return 0;
+  }
+
+  /**
+   * Release caches under memory pressure. Everything released is rebuilt when it is needed again.
+   *
+   * @param tier one of {@link #TRIM_CACHES}, {@link #TRIM_ROWS} or {@link #TRIM_ALL}
+   */
+  void trimMemory(int tier) {
+    clearPreparedRows();
+    if (layoutCache != null) {
+      layoutCache.clear();
+    }
+  }
+
+  /**
+   * @return a rough estimate of the bytes held by this adapter's caches
+   */
+  long getRetainedBytesEstimate() {
+    long bytes = preparedRows.size() * (long) ROW_BYTES_ESTIMATE;
+    if (layoutCache != null) {
+      bytes += layoutCache.estimateBytes();
+    }
+    return bytes;
+  }
+
+  @Override public void notifyDataSetChanged() {
+    logChange(0, Integer.MAX_VALUE);
+    super.notifyDataSetChanged();
+  }
+
+  @Override public void notifyDataSetInvalidated() {
+    logChange(0, Integer.MAX_VALUE);
+    super.notifyDataSetInvalidated();
+  }
+
+  /**
+   * Tell the list to lay out its rows again after a change recorded with a range. Only rows in the recorded ranges are
+   * bound again.
+   */
+  void notifyRowsChanged() {
+    notifyingRowsChanged = true;
+    try {
+      super.notifyDataSetChanged();
+    } finally {
+      notifyingRowsChanged = false;
+    }
+  }
+
+  /**
+   * @return {@code true} while observers are told about a change made through {@link #notifyRowsChanged()}, which
+   * never replaces the backing data as a whole
+   */
+  boolean isNotifyingRowsChanged() {
+    return notifyingRowsChanged;
+  }
+
+  private void bindIcon(final ViewHolder holder, int position) {
+    String key = iconProvider == null ? null : iconProvider.getIconKey(getItem(position));
+    IconLoader.Request request = holder.iconRequest;
+    if (request != null) {
+      if (key != null && key.equals(request.key)) {
+        return; // still loading the same icon
+      }
+      request.cancel();
+      holder.iconRequest = null;
+    }
+    if (key == null) {
+      setIcon(holder, null);
+      return;
+    }
+    Resources res = context.getResources();
+    int size = res.getDimensionPixelSize(R.dimen.ms__item_icon_size);
+    Bitmap cached = IconLoader.getCached(key, size);
+    if (cached != null) {
+      setIcon(holder, new BitmapDrawable(res, cached));
+      return;
+    }
+    // Reserve the icon's space so the text doesn't shift when it arrives
+    Drawable placeholder = new ColorDrawable(Color.TRANSPARENT);
+    placeholder.setBounds(0, 0, size, size);
+    setIcon(holder, placeholder);
+    holder.iconRequest = IconLoader.load(iconProvider, key, size, new IconLoader.Callback() {
+
+      @Override public void onIconLoaded(Bitmap bitmap) {
+        holder.iconRequest = null;
+        setIcon(holder, new BitmapDrawable(context.getResources(), bitmap));
+      }
+    });
+  }
+
+  @SuppressWarnings("deprecation")
+  private void setHighlighted(ViewHolder holder, boolean highlighted) {
+    holder.highlighted = highlighted;
+    View row = holder.rowView != null ? holder.rowView : holder.textView;
+    if (highlighted) {
+      // A translucent tint of the text color works on light and dark dropdowns; the list selector still shows through
+      if (highlightDrawable == null) {
+        // Only the selected row shows it, so one drawable is shared until the text color changes
+        highlightDrawable = new ColorDrawable((textColor & 0x00FFFFFF) | HIGHLIGHT_ALPHA);
+      }
+      row.setBackgroundDrawable(highlightDrawable);
     } else {
-      textView = ((ViewHolder) convertView.getTag()).textView;
+      row.setBackgroundDrawable(holder.background);
     }
+  }
+
+  private void setIcon(ViewHolder holder, Drawable icon) {
+    TextView textView = holder.textView;
+    holder.hasIcon = icon != null;
+    if (icon != null && icon.getBounds().isEmpty()) {
+      icon.setBounds(0, 0, icon.getIntrinsicWidth(), icon.getIntrinsicHeight());
+    }
+    textView.setCompoundDrawablePadding(
+        icon == null ? 0 : context.getResources().getDimensionPixelSize(R.dimen.ms__item_icon_padding));
+    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
+      textView.setCompoundDrawablesRelative(icon, null, null, null);
+    } else {
+      textView.setCompoundDrawables(icon, null, null, null);
+    }
+  }
+
+  /**
+   * Set the text of a dropdown row. Adapters that can format their items without allocating should override this and
+   * write into {@code buffer}, which belongs to the row and may be passed to {@link TextView#setText(char[], int, int)}.
+   *
+   * @param textView the row's text view
+   * @param buffer a buffer of {@link #ROW_BUFFER_SIZE} chars owned by the row
+   * @param position the position of the item in the dropdown
+   */
+  protected void bindItemText(TextView textView, char[] buffer, int position) {
     textView.setText(getItemText(position));
-    return convertView;
+  }
+
+  /**
+   * Set the text of a lightweight dropdown row. Adapters that override {@link #bindItemText(TextView, char[], int)}
+   * should override this too.
+   *
+   * @param row the row
+   * @param buffer a buffer of {@link #ROW_BUFFER_SIZE} chars owned by the row
+   * @param position the position of the item in the dropdown
+   * @see #setLightweightRows(boolean)
+   */
+  protected void bindItemText(TextRowView row, char[] buffer, int position) {
+    row.setText(getItemText(position));
+  }
+
+  /**
+   * Set the text of the item at a position in the backing data, e.g. for the spinner's collapsed label. Adapters that
+   * can format their items without allocating should override this and write into {@code buffer}.
+   *
+   * @param textView the view to set the text on
+   * @param buffer a buffer of {@link #ROW_BUFFER_SIZE} chars owned by {@code textView}
+   * @param position the position of the item in the backing data
+   */
+  protected void bindRawItemText(TextView textView, char[] buffer, int position) {
+    textView.setText(get(position).toString());
   }
 
   public String getItemText(int position) {
     return getItem(position).toString();
   }
 
+  /**
+   * Get the length of the text for an item in the dropdown.
+   *
+   * @param position the position of the item in the dropdown
+   * @return the number of characters in the item's text
+   */
+  public int getItemTextLength(int position) {
+    return getRawItemTextLength(toRawPosition(position, getRawCount()));
+  }
+
+  /**
+   * Get the length of the text for an item in the backing data. Used when measuring the spinner, so adapters that can
+   * compute the length without building the string should override this.
+   *
+   * @param position the position of the item in the backing data
+   * @return the number of characters in the item's text
+   */
+  public int getRawItemTextLength(int position) {
+    return String.valueOf(get(position)).length();
+  }
+
+  /**
+   * Find the item with the longest text, which is used to measure the spinner's width. Adapters that can't afford to
+   * read every item on the main thread, or that already know the answer, should override this.
+   *
+   * @return the position of the longest item in the backing data, or -1 if every item's text is empty
+   */
+  public int getLongestItemPosition() {
+    int longestPosition = -1;
+    int longestLength = 0;
+    for (int i = 0, count = getRawCount(); i < count; i++) {
+      int length = getRawItemTextLength(i);
+      if (length > longestLength) {
+        longestPosition = i;
+        longestLength = length;
+      }
+    }
+    return longestPosition;
+  }
+
   public int getSelectedIndex() {
     return selectedIndex;
   }
 
+  /**
+   * Get the number of items backing the adapter, including the selected item hidden from the dropdown. Subclasses
+   * should override this if {@link #getItems()} is expensive.
+   *
+   * @return the number of items
+   */
+  public int getRawCount() {
+    return getItems().size();
+  }
+
+  /**
+   * Get the number of rows shown in the dropdown for a data set of the given size.
+   *
+   * @param size the number of items backing the adapter
+   * @return the dropdown row count
+   */
+  int getVisibleCount(int size) {
+    int visible = size - positionMap.countHiddenBefore(size);
+    return hidesSelectedItem(size, visible) ? visible - 1 : visible;
+  }
+
+  /**
+   * Map a position in the backing data to a dropdown position. This is the inverse of {@link #toRawPosition(int, int)}
+   * for every item that isn't hidden; a hidden item maps to the position of the next item shown.
+   *
+   * @param position the position in the backing data
+   * @param size the number of items backing the adapter
+   * @return the number of items shown in the dropdown before the position
+   */
+  int toVisiblePosition(int position, int size) {
+    int visible = position - positionMap.countHiddenBefore(position);
+    if (selectedIndex < position && hidesSelectedItem(size)) {
+      return visible - 1;
+    }
+    return visible;
+  }
+
+  /**
+   * Map a dropdown position to a position in the backing data, skipping the items hidden with
+   * {@link #setItemHidden(int, boolean)} and the selected item when no hint is shown and it isn't highlighted.
+   *
+   * @param position the position in the dropdown
+   * @param size the number of items backing the adapter
+   * @return the position in the backing data
+   */
+  int toRawPosition(int position, int size) {
+    if (hidesSelectedItem(size) && position >= selectedIndex - positionMap.countHiddenBefore(selectedIndex)) {
+      position++;
+    }
+    return positionMap.selectVisible(position);
+  }
+
+  private boolean hidesSelectedItem(int size) {
+    return isSelectedItemHidden() && hidesSelectedItem(size, size - positionMap.countHiddenBefore(size));
+  }
+
+  /**
+   * The selected item is left out unless it is the only item shown or it is already hidden.
+   */
+  private boolean hidesSelectedItem(int size, int visible) {
+    return visible > 1 && isSelectedItemHidden() && selectedIndex < size && !positionMap.isHidden(selectedIndex);
+  }
+
   public void notifyItemSelected(int index) {
+    if (selectedIndex != index) {
+      if (isSelectedItemHidden()) {
+        // Rows between the old and new hidden item move by one
+        int size = getRawCount();
+        logChange(toVisiblePosition(Math.min(selectedIndex, index), size),
+            toVisiblePosition(Math.max(selectedIndex, index), size) + 1);
+      } else if (isSelectedItemHighlighted()) {
+        int size = getRawCount();
+        logChange(toVisiblePosition(selectedIndex, size), toVisiblePosition(selectedIndex, size) + 1);
+        logChange(toVisiblePosition(index, size), toVisiblePosition(index, size) + 1);
+      }
+    }
     selectedIndex = index;
   }
 
+  /**
+   * Hide an item from the dropdown. The spinner can still show a hidden item as its selection.
+   *
+   * @param position the position of the item in the backing data
+   * @param hidden {@code true} to leave the item out of the dropdown
+   */
+  public void setItemHidden(int position, boolean hidden) {
+    int size = getRawCount();
+    int visible = toVisiblePosition(position, size);
+    boolean hidSelected = hidesSelectedItem(size);
+    if (positionMap.setHidden(position, hidden)) {
+      // Every row after the item moves; hiding the second to last item also brings back the selected item
+      logChange(hidSelected != hidesSelectedItem(size) ? 0 : visible, Integer.MAX_VALUE);
+      notifyRowsChanged();
+    }
+  }
+
+  /**
+   * @param position the position of the item in the backing data
+   * @return {@code true} if the item was hidden with {@link #setItemHidden(int, boolean)}
+   */
+  public boolean isItemHidden(int position) {
+    return positionMap.isHidden(position);
+  }
+
+  /**
+   * Show every item hidden with {@link #setItemHidden(int, boolean)} again.
+   */
+  public void clearHiddenItems() {
+    if (positionMap.getHiddenCount() != 0) {
+      positionMap.clearHidden();
+      logChange(0, Integer.MAX_VALUE);
+      notifyRowsChanged();
+    }
+  }
+
+  /**
+   * Enable or disable an item. A disabled item is shown faded in the dropdown and can't be selected.
+   *
+   * @param position the position of the item in the backing data
+   * @param enabled {@code false} to disable the item
+   */
+  public void setItemEnabled(int position, boolean enabled) {
+    if (positionMap.setDisabled(position, !enabled)) {
+      int visible = toVisiblePosition(position, getRawCount());
+      logChange(visible, visible + 1);
+      notifyRowsChanged();
+    }
+  }
+
+  /**
+   * @param position the position of the item in the backing data
+   * @return {@code false} if the item was disabled with {@link #setItemEnabled(int, boolean)}
+   */
+  public boolean isItemEnabled(int position) {
+    return !positionMap.isDisabled(position);
+  }
+
+  @Override public boolean areAllItemsEnabled() {
+    return positionMap.getDisabledCount() == 0;
+  }
+
+  @Override public boolean isEnabled(int position) {
+    return !positionMap.isDisabled(toRawPosition(position, getRawCount()));
+  }
+
   @Override public long getItemId(int position) {
     return position;
   }
@@ -137,8 +673,40 @@ public abstract class MaterialSpinnerBaseAdapter<T> extends BaseAdapter {
     return this.isHintEnabled;
   }
 
+  /**
+   * Show the selected item in the dropdown with a light highlight, instead of hiding it. Has no effect while a hint is
+   * shown, since then no item is hidden or highlighted.
+   *
+   * @param highlightSelected {@code true} to highlight the selected item
+   * @return this adapter
+   */
+  public MaterialSpinnerBaseAdapter<T> setSelectedItemHighlighted(boolean highlightSelected) {
+    this.highlightSelected = highlightSelected;
+    return this;
+  }
+
+  /**
+   * @return {@code true} if the selected item is shown highlighted in the dropdown
+   */
+  public boolean isSelectedItemHighlighted() {
+    return highlightSelected && !isHintEnabled();
+  }
+
+  /**
+   * @return {@code true} if the selected item is left out of the dropdown
+   */
+  boolean isSelectedItemHidden() {
+    return !isHintEnabled() && !highlightSelected;
+  }
+
   public MaterialSpinnerBaseAdapter<T> setTextColor(@ColorInt int textColor) {
+    if (this.textColor != textColor) {
+      highlightDrawable = null;
+    }
     this.textColor = textColor;
+    if (layoutCache != null) {
+      layoutCache.setTextColor(textColor);
+    }
     return this;
   }
 
@@ -147,6 +715,37 @@ public abstract class MaterialSpinnerBaseAdapter<T> extends BaseAdapter {
     return this;
   }
 
+  /**
+   * Show an icon next to each item in the dropdown.
+   *
+   * @param iconProvider supplies the icons, or {@code null} to remove them
+   * @return this adapter
+   */
+  public MaterialSpinnerBaseAdapter<T> setIconProvider(@Nullable ItemIconProvider<T> iconProvider) {
+    this.iconProvider = iconProvider;
+    return this;
+  }
+
+  public ItemIconProvider<T> getIconProvider() {
+    return iconProvider;
+  }
+
+  /**
+   * Draw dropdown rows with a {@link TextRowView} instead of inflating a {@link TextView}. Rows with icons are
+   * still text views.
+   *
+   * @param lightweightRows {@code true} to use lightweight rows
+   * @return this adapter
+   */
+  public MaterialSpinnerBaseAdapter<T> setLightweightRows(boolean lightweightRows) {
+    this.lightweightRows = lightweightRows;
+    return this;
+  }
+
+  public boolean isLightweightRows() {
+    return lightweightRows;
+  }
+
   public MaterialSpinnerBaseAdapter<T> setPopupPadding(int left, int top, int right, int bottom) {
     this.popupPaddingLeft = left;
     this.popupPaddingTop = top;
@@ -155,12 +754,155 @@ public abstract class MaterialSpinnerBaseAdapter<T> extends BaseAdapter {
     return this;
   }
 
+  /**
+   * Change the context used to inflate rows, e.g. when the adapter is retained across a configuration change.
+   */
+  void setContext(Context context) {
+    this.context = context;
+    // Text size and direction come from the context
+    layoutCache = null;
+  }
+
+  void setItemsCallback(ItemsCallback itemsCallback) {
+    this.itemsCallback = itemsCallback;
+  }
+
+  /**
+   * Tell the spinner that the backing items were replaced. Must be called on the main thread after the new items are
+   * visible through {@link #get(int)}. Falls back to {@link #notifyDataSetChanged()} if no spinner is attached.
+   *
+   * @param oldCount the number of items before the change
+   * @param oldToNew the new position of each old item, or -1 if it was removed
+   */
+  void dispatchItemsReplaced(int oldCount, int[] oldToNew) {
+    dispatchItemsChanging(oldCount);
+    positionMap.remap(oldToNew);
+    if (itemsCallback != null) {
+      itemsCallback.onItemsReplaced(this, oldCount, oldToNew);
+    } else {
+      notifyDataSetChanged();
+    }
+  }
+
+  /**
+   * Tell the spinner that items were inserted into the backing data. Without a spinner attached, the list is simply
+   * told to lay out its rows again.
+   *
+   * @param position the position of the first inserted item
+   * @param count the number of inserted items
+   */
+  void dispatchItemRangeInserted(int position, int count) {
+    dispatchItemsChanging(getRawCount() - count);
+    positionMap.insert(position, count);
+    logRawChange(position, Integer.MAX_VALUE);
+    if (itemsCallback != null) {
+      itemsCallback.onItemRangeInserted(this, position, count);
+    } else {
+      notifyRowsChanged();
+    }
+  }
+
+  /**
+   * Tell the spinner that items were removed from the backing data.
+   *
+   * @param position the position of the first removed item
+   * @param count the number of removed items
+   */
+  void dispatchItemRangeRemoved(int position, int count) {
+    dispatchItemsChanging(getRawCount() + count);
+    positionMap.remove(position, count);
+    logRawChange(position, Integer.MAX_VALUE);
+    if (itemsCallback != null) {
+      itemsCallback.onItemRangeRemoved(this, position, count);
+    } else {
+      notifyRowsChanged();
+    }
+  }
+
+  /**
+   * Tell the spinner that an item in the backing data moved.
+   *
+   * @param fromPosition the old position of the item
+   * @param toPosition the new position of the item
+   */
+  void dispatchItemMoved(int fromPosition, int toPosition) {
+    dispatchItemsChanging(getRawCount());
+    positionMap.move(fromPosition, toPosition);
+    logRawChange(Math.min(fromPosition, toPosition), Math.max(fromPosition, toPosition) + 1);
+    if (itemsCallback != null) {
+      itemsCallback.onItemMoved(this, fromPosition, toPosition);
+    } else {
+      notifyRowsChanged();
+    }
+  }
+
+  /**
+   * Let the spinner read dropdown positions as they were before the hidden and disabled positions shift.
+   */
+  private void dispatchItemsChanging(int oldCount) {
+    if (itemsCallback != null) {
+      itemsCallback.onItemsChanging(this, oldCount);
+    }
+  }
+
+  /**
+   * Tell the spinner that items in the backing data were replaced.
+   *
+   * @param position the position of the first changed item
+   * @param count the number of changed items
+   */
+  void dispatchItemRangeChanged(int position, int count) {
+    logRawChange(position, position + count);
+    if (itemsCallback != null) {
+      itemsCallback.onItemRangeChanged(this, position, count);
+    } else {
+      notifyRowsChanged();
+    }
+  }
+
+  /**
+   * Receives changes to an adapter's items so the spinner can keep its selection and scroll position. Positions are
+   * positions in the backing data. The range callbacks are responsible for calling {@link #notifyRowsChanged()}.
+   */
+  interface ItemsCallback {
+
+    /**
+     * Called before the positions of hidden and disabled items are shifted, so dropdown positions still map to the old
+     * backing data.
+     */
+    void onItemsChanging(MaterialSpinnerBaseAdapter<?> adapter, int oldCount);
+
+    void onItemsReplaced(MaterialSpinnerBaseAdapter<?> adapter, int oldCount, int[] oldToNew);
+
+    void onItemRangeInserted(MaterialSpinnerBaseAdapter<?> adapter, int position, int count);
+
+    void onItemRangeRemoved(MaterialSpinnerBaseAdapter<?> adapter, int position, int count);
+
+    void onItemMoved(MaterialSpinnerBaseAdapter<?> adapter, int fromPosition, int toPosition);
+
+    void onItemRangeChanged(MaterialSpinnerBaseAdapter<?> adapter, int position, int count);
+  }
+
   private static class ViewHolder {
 
-    private TextView textView;
+    private final char[] buffer = new char[ROW_BUFFER_SIZE];
+    private final TextView textView;
+    private final TextRowView rowView;
+    private final Drawable background;
+    private IconLoader.Request iconRequest;
+    private boolean hasIcon;
+    private boolean highlighted;
+    private int boundPosition = -1;
+    private int boundVersion;
 
-    private ViewHolder(TextView textView) {
+    private ViewHolder(TextView textView, TextRowView rowView, Drawable background) {
       this.textView = textView;
+      this.rowView = rowView;
+      this.background = background;
+    }
+
+    private boolean isTextRow() {
+      return rowView != null;
     }
   }
 }
\ No newline at end of file
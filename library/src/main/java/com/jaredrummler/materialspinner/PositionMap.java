@@ -0,0 +1,304 @@
+/*
+ * Copyright (C) 2016 Jared Rummler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.jaredrummler.materialspinner;
+
+import java.util.Arrays;
+
+/**
+ * Tracks which positions in an adapter's backing data are hidden from the dropdown or disabled, and maps between
+ * positions in the backing data and dropdown positions.
+ *
+ * <p>Hidden positions are kept in a bitmap with a Fenwick tree over the number of hidden positions in each 64-bit word,
+ * so mapping in either direction and hiding or showing a single position take O(log n). Positions past the end of the
+ * bitmap are visible, so an adapter that hides nothing pays nothing. Inserting, removing or moving items shifts the
+ * bitmaps in O(n / 64), and does nothing while no position is hidden or disabled.</p>
+ */
+final class PositionMap {
+
+  private static final long[] EMPTY = new long[0];
+
+  private long[] hidden = EMPTY;
+  private long[] disabled = EMPTY;
+  /** 1-based Fenwick tree over the number of hidden positions in each word of {@link #hidden} */
+  private int[] tree = new int[1];
+  private int hiddenCount;
+  private int disabledCount;
+
+  boolean isHidden(int position) {
+    return get(hidden, position);
+  }
+
+  boolean isDisabled(int position) {
+    return get(disabled, position);
+  }
+
+  int getHiddenCount() {
+    return hiddenCount;
+  }
+
+  int getDisabledCount() {
+    return disabledCount;
+  }
+
+  /**
+   * @return {@code true} if the position's state changed
+   */
+  boolean setHidden(int position, boolean value) {
+    if (isHidden(position) == value) {
+      return false;
+    }
+    int word = position >>> 6;
+    if (word >= hidden.length) {
+      hidden = grow(hidden, word);
+      rebuildTree();
+    }
+    hidden[word] ^= 1L << position;
+    int delta = value ? 1 : -1;
+    hiddenCount += delta;
+    for (int i = word + 1; i < tree.length; i += i & -i) {
+      tree[i] += delta;
+    }
+    return true;
+  }
+
+  /**
+   * @return {@code true} if the position's state changed
+   */
+  boolean setDisabled(int position, boolean value) {
+    if (isDisabled(position) == value) {
+      return false;
+    }
+    int word = position >>> 6;
+    if (word >= disabled.length) {
+      disabled = grow(disabled, word);
+    }
+    disabled[word] ^= 1L << position;
+    disabledCount += value ? 1 : -1;
+    return true;
+  }
+
+  /**
+   * Count the hidden positions before a position.
+   *
+   * @param position a position in the backing data
+   * @return the number of hidden positions in {@code [0, position)}
+   */
+  int countHiddenBefore(int position) {
+    if (hiddenCount == 0 || position <= 0) {
+      return 0;
+    }
+    int word = position >>> 6;
+    if (word >= hidden.length) {
+      return hiddenCount;
+    }
+    int count = 0;
+    for (int i = word; i > 0; i -= i & -i) {
+      count += tree[i];
+    }
+    return count + Long.bitCount(hidden[word] & ((1L << position) - 1));
+  }
+
+  /**
+   * Find the position of the n-th position that isn't hidden.
+   *
+   * @param index the 0-based rank among visible positions
+   * @return the position in the backing data
+   */
+  int selectVisible(int index) {
+    if (hiddenCount == 0) {
+      return index;
+    }
+    int words = hidden.length;
+    int word = 0;
+    int remaining = index;
+    // Descend the tree, skipping blocks of words with no more visible positions than are left to skip
+    for (int step = Integer.highestOneBit(words); step > 0; step >>>= 1) {
+      int next = word + step;
+      if (next <= words) {
+        int visible = (step << 6) - tree[next];
+        if (visible <= remaining) {
+          word = next;
+          remaining -= visible;
+        }
+      }
+    }
+    if (word == words) {
+      return (words << 6) + remaining;
+    }
+    long free = ~hidden[word];
+    for (int i = 0; i < remaining; i++) {
+      free &= free - 1;
+    }
+    return (word << 6) + Long.numberOfTrailingZeros(free);
+  }
+
+  /**
+   * Shift the states after a position for inserted items. The inserted items are visible and enabled.
+   */
+  void insert(int position, int count) {
+    if (hiddenCount == 0 && disabledCount == 0) {
+      return;
+    }
+    disabled = splice(disabled, position, 0, count);
+    long[] shifted = splice(hidden, position, 0, count);
+    if (shifted != hidden) {
+      hidden = shifted;
+      rebuildTree();
+    }
+  }
+
+  /**
+   * Drop the states of removed items and shift the states after them.
+   */
+  void remove(int position, int count) {
+    if (hiddenCount == 0 && disabledCount == 0) {
+      return;
+    }
+    long[] shifted = splice(disabled, position, count, 0);
+    if (shifted != disabled) {
+      disabled = shifted;
+      countDisabled();
+    }
+    shifted = splice(hidden, position, count, 0);
+    if (shifted != hidden) {
+      hidden = shifted;
+      rebuildTree();
+    }
+  }
+
+  /**
+   * Move the states of an item along with it.
+   */
+  void move(int fromPosition, int toPosition) {
+    if (hiddenCount == 0 && disabledCount == 0) {
+      return;
+    }
+    boolean wasHidden = isHidden(fromPosition);
+    boolean wasDisabled = isDisabled(fromPosition);
+    remove(fromPosition, 1);
+    insert(toPosition, 1);
+    setHidden(toPosition, wasHidden);
+    setDisabled(toPosition, wasDisabled);
+  }
+
+  /**
+   * Move the states of every item to its new position after the items were replaced.
+   *
+   * @param oldToNew the new position of each old item, or -1 if it was removed
+   */
+  void remap(int[] oldToNew) {
+    if (hiddenCount == 0 && disabledCount == 0) {
+      return;
+    }
+    hidden = remap(hidden, oldToNew);
+    disabled = remap(disabled, oldToNew);
+    recount();
+  }
+
+  void clearHidden() {
+    hidden = EMPTY;
+    recount();
+  }
+
+  void clearDisabled() {
+    disabled = EMPTY;
+    disabledCount = 0;
+  }
+
+  private void recount() {
+    countDisabled();
+    rebuildTree();
+  }
+
+  private void countDisabled() {
+    disabledCount = 0;
+    for (long word : disabled) {
+      disabledCount += Long.bitCount(word);
+    }
+  }
+
+  private void rebuildTree() {
+    int words = hidden.length;
+    tree = new int[words + 1];
+    hiddenCount = 0;
+    for (int i = 1; i <= words; i++) {
+      int count = Long.bitCount(hidden[i - 1]);
+      hiddenCount += count;
+      tree[i] += count;
+      int parent = i + (i & -i);
+      if (parent <= words) {
+        tree[parent] += tree[i];
+      }
+    }
+  }
+
+  private static boolean get(long[] bits, int position) {
+    int word = position >>> 6;
+    return word < bits.length && (bits[word] & (1L << position)) != 0;
+  }
+
+  private static long[] grow(long[] bits, int word) {
+    return Arrays.copyOf(bits, Math.max(word + 1, bits.length * 2));
+  }
+
+  /**
+   * Remove {@code removed} bits at a position and insert {@code inserted} clear bits in their place.
+   */
+  private static long[] splice(long[] bits, int position, int removed, int inserted) {
+    if (bits.length == 0 || position >= bits.length << 6) {
+      return bits; // nothing set at or after the position
+    }
+    long[] result = new long[bits.length + ((inserted + 63) >>> 6)];
+    for (int word = 0; word < bits.length; word++) {
+      long value = bits[word];
+      while (value != 0) {
+        int bit = (word << 6) + Long.numberOfTrailingZeros(value);
+        value &= value - 1;
+        if (bit < position) {
+          result[bit >>> 6] |= 1L << bit;
+        } else if (bit >= position + removed) {
+          int moved = bit - removed + inserted;
+          result[moved >>> 6] |= 1L << moved;
+        }
+      }
+    }
+    return result;
+  }
+
+  private static long[] remap(long[] bits, int[] oldToNew) {
+    if (bits.length == 0) {
+      return bits;
+    }
+    int max = -1;
+    for (int position = 0; position < oldToNew.length; position++) {
+      if (get(bits, position)) {
+        max = Math.max(max, oldToNew[position]);
+      }
+    }
+    if (max == -1) {
+      return EMPTY;
+    }
+    long[] result = new long[(max >>> 6) + 1];
+    for (int position = 0; position < oldToNew.length; position++) {
+      int newPosition = oldToNew[position];
+      if (newPosition != -1 && get(bits, position)) {
+        result[newPosition >>> 6] |= 1L << newPosition;
+      }
+    }
+    return result;
+  }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2016 Jared Rummler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.jaredrummler.materialspinner;
+
+import android.util.SparseArray;
+
+/**
+ * Holds spinner adapters and their computed caches across configuration changes. Create one per screen, keep it in a
+ * {@code ViewModel} or non-configuration instance, and pass it to {@link MaterialSpinner#setRetainedState}. Spinners
+ * are matched by view id.
+ *
+ * <p>Retained adapters only reference the application context while no spinner is attached to them.</p>
+ */
+public final class RetainedSpinnerState {
+
+  private final SparseArray<Entry> entries = new SparseArray<>();
+
+  /**
+   * Drop everything held for all spinners.
+   */
+  public void clear() {
+    entries.clear();
+  }
+
+  Entry get(int id) {
+    return entries.get(id);
+  }
+
+  void put(int id, MaterialSpinnerBaseAdapter<?> adapter, int longestItemLength, int longestItemIndex,
+      String longestItemText) {
+    entries.put(id, new Entry(adapter, longestItemLength, longestItemIndex, longestItemText));
+  }
+
+  static final class Entry {
+
+    final MaterialSpinnerBaseAdapter<?> adapter;
+    final int longestItemLength;
+    final int longestItemIndex;
+    final String longestItemText;
+
+    Entry(MaterialSpinnerBaseAdapter<?> adapter, int longestItemLength, int longestItemIndex, String longestItemText) {
+      this.adapter = adapter;
+      this.longestItemLength = longestItemLength;
+      this.longestItemIndex = longestItemIndex;
+      this.longestItemText = longestItemText;
+    }
+  }
+}
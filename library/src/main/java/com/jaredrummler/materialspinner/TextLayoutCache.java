@@ -0,0 +1,205 @@
+/*
+ * Copyright (C) 2016 Jared Rummler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.jaredrummler.materialspinner;
+
+import android.annotation.TargetApi;
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.os.Build;
+import android.text.BoringLayout;
+import android.text.Layout;
+import android.text.StaticLayout;
+import android.text.TextDirectionHeuristics;
+import android.text.TextPaint;
+import android.text.TextUtils;
+import android.util.DisplayMetrics;
+import android.util.LruCache;
+import android.util.TypedValue;
+
+/**
+ * Builds and caches the single-line layouts drawn by {@link TextRowView}, keyed by text and width. Every row of an
+ * adapter shares one cache and one paint, so scrolling back to a row, or binding another row with the same label,
+ * doesn't measure the text again.
+ */
+final class TextLayoutCache {
+
+  private static final int MAX_SIZE = 128;
+  /** A rough size of a single-line layout and its key, excluding the text */
+  private static final int LAYOUT_BYTES_ESTIMATE = 160;
+  private static final int[] TEXT_SIZE_ATTR = { android.R.attr.textSize };
+
+  final TextPaint paint = new TextPaint(TextPaint.ANTI_ALIAS_FLAG);
+  final int fontHeight;
+
+  private final LruCache<Key, Layout> layouts = new LruCache<Key, Layout>(MAX_SIZE) {
+
+    @Override protected void entryRemoved(boolean evicted, Key key, Layout oldValue, Layout newValue) {
+      retainedChars -= key.length;
+    }
+  };
+  private int retainedChars;
+  private final Key probe = new Key();
+  private final boolean rtl;
+  private BoringLayout.Metrics boringMetrics;
+
+  TextLayoutCache(Context context, int textColor) {
+    DisplayMetrics dm = context.getResources().getDisplayMetrics();
+    float defaultSize = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, 14, dm);
+    // Match the text size of a TextView using the theme's small text appearance, as the inflated rows do
+    TypedArray ta = context.obtainStyledAttributes(null, TEXT_SIZE_ATTR, android.R.attr.textAppearanceSmall, 0);
+    try {
+      paint.setTextSize(ta.getDimension(0, defaultSize));
+    } finally {
+      ta.recycle();
+    }
+    paint.density = dm.density;
+    paint.setColor(textColor);
+    fontHeight = paint.getFontMetricsInt(null);
+    rtl = Utils.isRtl(context);
+  }
+
+  /**
+   * Get the layout for a row's text.
+   *
+   * @param text the text, or {@code null} to use {@code chars}
+   * @param chars the text as a char array, used when {@code text} is {@code null}
+   * @param start the offset of the text in {@code chars}
+   * @param length the length of the text
+   * @param width the available width in pixels
+   * @return the cached or newly built layout
+   */
+  Layout get(CharSequence text, char[] chars, int start, int length, int width) {
+    probe.set(text, chars, start, length, width);
+    Layout layout = layouts.get(probe);
+    if (layout == null) {
+      String string = text != null ? text.toString() : new String(chars, start, length);
+      layout = make(string, width);
+      layouts.put(new Key(string, width), layout);
+      retainedChars += string.length();
+    }
+    probe.set(null, null, 0, 0, 0); // don't hold on to the row's text
+    return layout;
+  }
+
+  /**
+   * Measure text without building a layout, for rows that aren't given an exact width.
+   */
+  float measure(CharSequence text, char[] chars, int start, int length) {
+    return text != null ? paint.measureText(text, 0, text.length()) : paint.measureText(chars, start, length);
+  }
+
+  void setTextColor(int textColor) {
+    // Layouts draw with the shared paint, so cached layouts pick up the new color
+    paint.setColor(textColor);
+  }
+
+  void clear() {
+    layouts.evictAll();
+  }
+
+  /**
+   * @return a rough estimate of the bytes held by the cached layouts and their text
+   */
+  long estimateBytes() {
+    return layouts.size() * (long) LAYOUT_BYTES_ESTIMATE + retainedChars * 2L;
+  }
+
+  private Layout make(String text, int width) {
+    BoringLayout.Metrics metrics = BoringLayout.isBoring(text, paint, boringMetrics);
+    if (metrics != null) {
+      // Boring text is left-to-right only; in a right-to-left layout it still starts on the right
+      boringMetrics = metrics;
+      Layout.Alignment alignment = rtl ? Layout.Alignment.ALIGN_OPPOSITE : Layout.Alignment.ALIGN_NORMAL;
+      if (metrics.width <= width) {
+        return BoringLayout.make(text, paint, width, alignment, 1f, 0f, metrics, false);
+      }
+      return BoringLayout.make(text, paint, width, alignment, 1f, 0f, metrics, false, TextUtils.TruncateAt.END, width);
+    }
+    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+      return makeStaticLayout(text, width);
+    }
+    CharSequence ellipsized = TextUtils.ellipsize(text, paint, width, TextUtils.TruncateAt.END);
+    Layout layout = new StaticLayout(ellipsized, paint, width, Layout.Alignment.ALIGN_NORMAL, 1f, 0f, false);
+    if (rtl && layout.getParagraphDirection(0) == Layout.DIR_LEFT_TO_RIGHT) {
+      // The paragraph direction can't be forced before M, so align left-to-right text to the right instead
+      layout = new StaticLayout(ellipsized, paint, width, Layout.Alignment.ALIGN_OPPOSITE, 1f, 0f, false);
+    }
+    return layout;
+  }
+
+  @TargetApi(Build.VERSION_CODES.M)
+  private Layout makeStaticLayout(String text, int width) {
+    return StaticLayout.Builder.obtain(text, 0, text.length(), paint, width)
+        .setTextDirection(rtl ? TextDirectionHeuristics.RTL : TextDirectionHeuristics.FIRSTSTRONG_LTR)
+        .setIncludePad(false)
+        .setEllipsize(TextUtils.TruncateAt.END)
+        .setMaxLines(1)
+        .build();
+  }
+
+  /**
+   * A cache key. Stored keys hold a {@link String}; the lookup probe wraps the caller's text without copying it.
+   */
+  private static final class Key {
+
+    private CharSequence text;
+    private char[] chars;
+    private int start;
+    private int length;
+    private int width;
+    private int hash;
+
+    Key() {
+    }
+
+    Key(String text, int width) {
+      set(text, null, 0, text.length(), width);
+    }
+
+    void set(CharSequence text, char[] chars, int start, int length, int width) {
+      this.text = text;
+      this.chars = chars;
+      this.start = start;
+      this.length = text != null ? text.length() : length;
+      this.width = width;
+      int hash = width;
+      for (int i = 0; i < this.length; i++) {
+        hash = 31 * hash + charAt(i);
+      }
+      this.hash = hash;
+    }
+
+    private char charAt(int index) {
+      return text != null ? text.charAt(index) : chars[start + index];
+    }
+
+    @Override public int hashCode() {
+      return hash;
+    }
+
+    @Override public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof Key)) return false;
+      Key other = (Key) o;
+      if (hash != other.hash || width != other.width || length != other.length) return false;
+      for (int i = 0; i < length; i++) {
+        if (charAt(i) != other.charAt(i)) return false;
+      }
+      return true;
+    }
+  }
+}
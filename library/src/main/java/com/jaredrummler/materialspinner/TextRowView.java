@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2016 Jared Rummler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.jaredrummler.materialspinner;
+
+import android.annotation.SuppressLint;
+import android.content.Context;
+import android.graphics.Canvas;
+import android.text.Layout;
+import android.view.View;
+import android.view.accessibility.AccessibilityEvent;
+import android.view.accessibility.AccessibilityNodeInfo;
+import android.widget.TextView;
+
+/**
+ * A dropdown row that shows a single line of plain text. It draws a layout from its adapter's shared cache instead of
+ * carrying a {@link TextView}'s editing, span and marquee machinery, which makes binding and drawing rows cheaper.
+ *
+ * @see MaterialSpinner#setLightweightRows(boolean)
+ */
+@SuppressLint("ViewConstructor")
+public final class TextRowView extends View {
+
+  private final TextLayoutCache cache;
+  private CharSequence text;
+  private char[] chars;
+  private int start;
+  private int length;
+  private Layout layout;
+  private boolean exactWidth;
+
+  TextRowView(Context context, TextLayoutCache cache) {
+    super(context);
+    this.cache = cache;
+  }
+
+  /**
+   * Set the text to display.
+   *
+   * @param text the text, drawn without spans
+   */
+  public void setText(CharSequence text) {
+    this.text = text == null ? "" : text;
+    this.chars = null;
+    onTextChanged();
+  }
+
+  /**
+   * Set the text to display from a char array, which is not copied. As with {@link TextView#setText(char[], int, int)},
+   * the array must not be changed until the row is given new text.
+   *
+   * @param text the array holding the text
+   * @param start the offset of the text in the array
+   * @param length the length of the text
+   */
+  public void setText(char[] text, int start, int length) {
+    this.text = null;
+    this.chars = text;
+    this.start = start;
+    this.length = length;
+    onTextChanged();
+  }
+
+  /**
+   * @return the text shown by this row
+   */
+  public CharSequence getText() {
+    if (text == null) {
+      // Only built when asked for, e.g. by accessibility services
+      text = new String(chars, start, length);
+      chars = null;
+    }
+    return text;
+  }
+
+  private void onTextChanged() {
+    layout = null;
+    if (!exactWidth) {
+      requestLayout();
+    }
+    invalidate();
+  }
+
+  @Override protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+    exactWidth = MeasureSpec.getMode(widthMeasureSpec) == MeasureSpec.EXACTLY;
+    int width;
+    if (exactWidth) {
+      width = MeasureSpec.getSize(widthMeasureSpec);
+    } else {
+      width = getPaddingLeft() + getPaddingRight() + (int) Math.ceil(cache.measure(text, chars, start, length));
+      width = resolveSize(Math.max(width, getSuggestedMinimumWidth()), widthMeasureSpec);
+    }
+    int height = Math.max(getPaddingTop() + cache.fontHeight + getPaddingBottom(), getSuggestedMinimumHeight());
+    setMeasuredDimension(width, resolveSize(height, heightMeasureSpec));
+  }
+
+  @Override protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+    layout = null;
+  }
+
+  @Override protected void onDraw(Canvas canvas) {
+    int width = getWidth() - getPaddingLeft() - getPaddingRight();
+    if (width <= 0) {
+      return;
+    }
+    if (layout == null) {
+      layout = cache.get(text, chars, start, length, width);
+    }
+    int height = getHeight() - getPaddingTop() - getPaddingBottom();
+    int top = getPaddingTop() + (height - layout.getHeight()) / 2; // center_vertical
+    canvas.save();
+    canvas.translate(getPaddingLeft(), top);
+    layout.draw(canvas);
+    canvas.restore();
+  }
+
+  @Override public void onPopulateAccessibilityEvent(AccessibilityEvent event) {
+    super.onPopulateAccessibilityEvent(event);
+    event.getText().add(getText());
+  }
+
+  @Override public void onInitializeAccessibilityEvent(AccessibilityEvent event) {
+    super.onInitializeAccessibilityEvent(event);
+    event.setClassName(TextView.class.getName());
+  }
+
+  @Override public void onInitializeAccessibilityNodeInfo(AccessibilityNodeInfo info) {
+    super.onInitializeAccessibilityNodeInfo(info);
+    info.setClassName(TextView.class.getName());
+    info.setText(getText());
+  }
+}
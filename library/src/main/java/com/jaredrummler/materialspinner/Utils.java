@@ -80,4 +80,40 @@ final class Utils {
     }
     return context.getResources().getDrawable(id);
   }
+
+  /**
+   * Writes the decimal representation of a value to the end of a buffer without allocating.
+   *
+   * @param value the value to format
+   * @param buffer the destination. Must hold at least 20 chars to fit any {@code long}.
+   * @return the index in {@code buffer} of the first character written
+   */
+  static int formatDecimal(long value, char[] buffer) {
+    int pos = buffer.length;
+    boolean negative = value < 0;
+    // Work with negative values so that Long.MIN_VALUE doesn't overflow
+    if (!negative) value = -value;
+    do {
+      buffer[--pos] = (char) ('0' - (value % 10));
+      value /= 10;
+    } while (value != 0);
+    if (negative) buffer[--pos] = '-';
+    return pos;
+  }
+
+  /**
+   * Get the number of characters in the decimal representation of a value.
+   *
+   * @param value the value
+   * @return the length of {@code String.valueOf(value)}
+   */
+  static int decimalLength(long value) {
+    int length = value < 0 ? 2 : 1;
+    if (value > 0) value = -value;
+    while (value <= -10) {
+      value /= 10;
+      length++;
+    }
+    return length;
+  }
 }
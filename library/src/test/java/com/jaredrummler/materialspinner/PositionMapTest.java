@@ -0,0 +1,279 @@
+/*
+ * Copyright (C) 2016 Jared Rummler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.jaredrummler.materialspinner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PositionMapTest {
+
+  private PositionMap map;
+
+  @Before public void setUp() {
+    map = new PositionMap();
+  }
+
+  @Test public void emptyMapIsIdentity() {
+    for (int position = 0; position < 200; position++) {
+      assertFalse(map.isHidden(position));
+      assertFalse(map.isDisabled(position));
+      assertEquals(0, map.countHiddenBefore(position));
+      assertEquals(position, map.selectVisible(position));
+    }
+    assertEquals(0, map.getHiddenCount());
+    assertEquals(0, map.getDisabledCount());
+  }
+
+  @Test public void hideAndShow() {
+    assertTrue(map.setHidden(5, true));
+    assertFalse(map.setHidden(5, true));
+    assertTrue(map.isHidden(5));
+    assertEquals(1, map.getHiddenCount());
+
+    assertTrue(map.setHidden(5, false));
+    assertFalse(map.setHidden(5, false));
+    assertFalse(map.isHidden(5));
+    assertEquals(0, map.getHiddenCount());
+    assertFalse(map.setHidden(1000, false));
+  }
+
+  @Test public void disableAndEnable() {
+    assertTrue(map.setDisabled(70, true));
+    assertFalse(map.setDisabled(70, true));
+    assertTrue(map.isDisabled(70));
+    assertFalse(map.isHidden(70));
+    assertEquals(1, map.getDisabledCount());
+    assertEquals(0, map.getHiddenCount());
+
+    assertTrue(map.setDisabled(70, false));
+    assertFalse(map.isDisabled(70));
+    assertEquals(0, map.getDisabledCount());
+  }
+
+  @Test public void clearHiddenKeepsDisabled() {
+    map.setHidden(3, true);
+    map.setDisabled(4, true);
+    map.clearHidden();
+    assertFalse(map.isHidden(3));
+    assertEquals(0, map.getHiddenCount());
+    assertTrue(map.isDisabled(4));
+    assertEquals(1, map.getDisabledCount());
+
+    map.clearDisabled();
+    assertFalse(map.isDisabled(4));
+    assertEquals(0, map.getDisabledCount());
+  }
+
+  @Test public void mapsFirstPositionHidden() {
+    map.setHidden(0, true);
+    assertEquals(0, map.countHiddenBefore(0));
+    assertEquals(1, map.countHiddenBefore(1));
+    assertEquals(1, map.selectVisible(0));
+    assertEquals(2, map.selectVisible(1));
+  }
+
+  @Test public void mapsAcrossWordBoundary() {
+    map.setHidden(63, true);
+    map.setHidden(64, true);
+    assertEquals(0, map.countHiddenBefore(63));
+    assertEquals(1, map.countHiddenBefore(64));
+    assertEquals(2, map.countHiddenBefore(65));
+    assertEquals(62, map.selectVisible(62));
+    assertEquals(65, map.selectVisible(63));
+    assertEquals(66, map.selectVisible(64));
+  }
+
+  @Test public void mapsLastBitOfWord() {
+    map.setHidden(127, true);
+    assertEquals(0, map.countHiddenBefore(127));
+    assertEquals(1, map.countHiddenBefore(128));
+    assertEquals(126, map.selectVisible(126));
+    assertEquals(128, map.selectVisible(127));
+  }
+
+  @Test public void mapsPastEndOfBitmap() {
+    map.setHidden(10, true);
+    map.setHidden(20, true);
+    assertEquals(2, map.countHiddenBefore(64));
+    assertEquals(2, map.countHiddenBefore(10000));
+    assertEquals(66, map.selectVisible(64));
+    assertEquals(10002, map.selectVisible(10000));
+  }
+
+  @Test public void mapsFullyHiddenWord() {
+    for (int position = 0; position < 64; position++) {
+      map.setHidden(position, true);
+    }
+    assertEquals(64, map.getHiddenCount());
+    assertEquals(64, map.selectVisible(0));
+    assertEquals(64, map.countHiddenBefore(64));
+    assertEquals(64, map.countHiddenBefore(65));
+  }
+
+  @Test public void insertShiftsStatesAfterPosition() {
+    map.setHidden(2, true);
+    map.setHidden(5, true);
+    map.setDisabled(5, true);
+    map.insert(3, 2);
+    assertTrue(map.isHidden(2));
+    assertFalse(map.isHidden(3));
+    assertFalse(map.isHidden(4));
+    assertFalse(map.isHidden(5));
+    assertTrue(map.isHidden(7));
+    assertTrue(map.isDisabled(7));
+    assertFalse(map.isDisabled(5));
+    assertEquals(2, map.getHiddenCount());
+    assertEquals(1, map.getDisabledCount());
+    assertEquals(6, map.selectVisible(5));
+  }
+
+  @Test public void insertAcrossWordBoundary() {
+    map.setHidden(60, true);
+    map.insert(0, 10);
+    assertFalse(map.isHidden(60));
+    assertTrue(map.isHidden(70));
+    assertEquals(1, map.countHiddenBefore(71));
+    assertEquals(71, map.selectVisible(70));
+  }
+
+  @Test public void insertAtHiddenPositionShiftsIt() {
+    map.setHidden(4, true);
+    map.insert(4, 1);
+    assertFalse(map.isHidden(4));
+    assertTrue(map.isHidden(5));
+  }
+
+  @Test public void removeDropsAndShiftsStates() {
+    map.setHidden(1, true);
+    map.setHidden(3, true);
+    map.setDisabled(3, true);
+    map.setHidden(66, true);
+    map.setDisabled(70, true);
+    map.remove(2, 2);
+    assertTrue(map.isHidden(1));
+    assertFalse(map.isHidden(2));
+    assertFalse(map.isDisabled(2));
+    assertTrue(map.isHidden(64));
+    assertTrue(map.isDisabled(68));
+    assertEquals(2, map.getHiddenCount());
+    assertEquals(1, map.getDisabledCount());
+    assertEquals(2, map.countHiddenBefore(65));
+  }
+
+  @Test public void moveCarriesStates() {
+    map.setHidden(1, true);
+    map.setDisabled(1, true);
+    map.move(1, 4);
+    assertFalse(map.isHidden(1));
+    assertTrue(map.isHidden(4));
+    assertTrue(map.isDisabled(4));
+    assertEquals(1, map.getHiddenCount());
+    assertEquals(1, map.getDisabledCount());
+  }
+
+  @Test public void remapMovesAndDropsStates() {
+    map.setHidden(0, true);
+    map.setHidden(1, true);
+    map.setDisabled(2, true);
+    map.remap(new int[] {100, -1, 0});
+    assertTrue(map.isHidden(100));
+    assertFalse(map.isHidden(0));
+    assertFalse(map.isHidden(1));
+    assertTrue(map.isDisabled(0));
+    assertFalse(map.isDisabled(2));
+    assertEquals(1, map.getHiddenCount());
+    assertEquals(1, map.getDisabledCount());
+  }
+
+  @Test public void shiftsDoNothingWhenNothingHiddenOrDisabled() {
+    map.insert(0, 100);
+    map.remove(0, 50);
+    map.move(0, 10);
+    assertEquals(0, map.getHiddenCount());
+    assertEquals(0, map.getDisabledCount());
+    assertEquals(7, map.selectVisible(7));
+  }
+
+  @Test public void shiftsKeepHiddenTreeWhenOnlyDisabled() {
+    map.setDisabled(0, true);
+    map.insert(0, 1);
+    map.remove(5, 1);
+    assertTrue(map.isDisabled(1));
+    assertEquals(0, map.getHiddenCount());
+    assertEquals(9, map.selectVisible(9));
+  }
+
+  @Test public void matchesListModelAfterRandomEdits() {
+    Random random = new Random(42);
+    List<Boolean> model = new ArrayList<>();
+    for (int i = 0; i < 300; i++) {
+      model.add(false);
+    }
+    for (int step = 0; step < 2000; step++) {
+      int size = model.size();
+      int op = random.nextInt(4);
+      if (op == 0 && size > 0) {
+        int position = random.nextInt(size);
+        boolean value = random.nextBoolean();
+        model.set(position, value);
+        map.setHidden(position, value);
+      } else if (op == 1) {
+        int position = random.nextInt(size + 1);
+        int count = 1 + random.nextInt(70);
+        for (int i = 0; i < count; i++) {
+          model.add(position, false);
+        }
+        map.insert(position, count);
+      } else if (op == 2 && size > 0) {
+        int position = random.nextInt(size);
+        int count = 1 + random.nextInt(Math.min(70, size - position));
+        for (int i = 0; i < count; i++) {
+          model.remove(position);
+        }
+        map.remove(position, count);
+      } else if (op == 3 && size > 1) {
+        int from = random.nextInt(size);
+        int to = random.nextInt(size);
+        model.add(to, model.remove(from));
+        map.move(from, to);
+      }
+      assertMatches(model);
+    }
+  }
+
+  private void assertMatches(List<Boolean> model) {
+    int hiddenBefore = 0;
+    int visible = 0;
+    for (int position = 0; position < model.size(); position++) {
+      assertEquals(model.get(position), map.isHidden(position));
+      assertEquals(hiddenBefore, map.countHiddenBefore(position));
+      if (model.get(position)) {
+        hiddenBefore++;
+      } else {
+        assertEquals(position, map.selectVisible(visible++));
+      }
+    }
+    assertEquals(hiddenBefore, map.getHiddenCount());
+  }
+}